@@ -0,0 +1,125 @@
+package org.soraworld.lobby.bench;
+
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.soraworld.lobby.core.IGameLobby;
+import org.soraworld.lobby.core.RType;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试用大厅，每 tick 更新且永不开始游戏.
+ */
+final class BenchLobby implements IGameLobby {
+
+    private final String id;
+    private final Location center;
+    private final int radius;
+    private final RType type;
+    private final LinkedHashMap<Location, Location> transfer = new LinkedHashMap<>();
+
+    BenchLobby(String id, Location center, int radius, RType type, int factions) {
+        this.id = id;
+        this.center = center;
+        this.radius = radius;
+        this.type = type;
+        for (int i = 0; i < factions; i++) {
+            double angle = Math.PI * 2 * i / factions;
+            Location rally = center.clone().add(Math.cos(angle) * radius / 2, 0, Math.sin(angle) * radius / 2);
+            transfer.put(rally, rally.clone().add(0, 50, 0));
+        }
+    }
+
+    public @NotNull String id() {
+        return id;
+    }
+
+    public int cycle() {
+        return 1;
+    }
+
+    public @NotNull String display() {
+        return id;
+    }
+
+    public Location getCenter() {
+        return center;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public @NotNull RType getRType() {
+        return type;
+    }
+
+    public @NotNull Map<Location, Location> getTransfer() {
+        return transfer;
+    }
+
+    public boolean checkPrepare() {
+        return true;
+    }
+
+    public boolean shouldOpen() {
+        return false;
+    }
+
+    public boolean shouldStart(long lobbyLife, @NotNull List<Player> players, @NotNull Map<Location, List<Player>> factions) {
+        return false;
+    }
+
+    public boolean shouldFinish(long lobbyLife, long gameLife, @NotNull List<Player> players, @NotNull Map<Location, List<Player>> factions) {
+        return false;
+    }
+
+    public boolean shouldClose(long time) {
+        return false;
+    }
+
+    public boolean onPlayerJoin(@NotNull Player player) {
+        return true;
+    }
+
+    public @Nullable Location onPlayerStart(@NotNull Player player, @NotNull Location origin) {
+        return origin;
+    }
+
+    public boolean onPlayerQuit(@NotNull Player player) {
+        return true;
+    }
+
+    public void onOpen() {
+    }
+
+    public void onStart() {
+    }
+
+    public void onUpdate(long lobbyLife, long gameLife) {
+    }
+
+    public void onFinish() {
+    }
+
+    public void onClose() {
+    }
+
+    public void onPlayerDeath(@NotNull Player player) {
+    }
+
+    public @Nullable List<String> extraInfo() {
+        return null;
+    }
+
+    public void send(CommandSender sender, String message) {
+    }
+
+    public void sendKey(CommandSender sender, String key, Object... args) {
+    }
+}
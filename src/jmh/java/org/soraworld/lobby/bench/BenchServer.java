@@ -0,0 +1,176 @@
+package org.soraworld.lobby.bench;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.soraworld.lobby.GameLobby;
+import org.soraworld.lobby.manager.LobbyManager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * 离线基准测试环境.
+ * 使用动态代理实现 Bukkit 的 Server/World/Player 等接口，不需要启动服务器.
+ */
+final class BenchServer {
+
+    private static final Logger LOGGER = Logger.getLogger("LobbyBench");
+    private static final ArrayList<World> WORLDS = new ArrayList<>();
+
+    private BenchServer() {
+    }
+
+    static synchronized void install() {
+        if (Bukkit.getServer() != null) return;
+        BukkitTask task = stub(BukkitTask.class, (proxy, method, args) -> {
+            if (method.getName().equals("getTaskId")) return 0;
+            return null;
+        });
+        BukkitScheduler scheduler = stub(BukkitScheduler.class, (proxy, method, args) ->
+                method.getReturnType() == BukkitTask.class ? task : null);
+        PluginManager pluginManager = stub(PluginManager.class, (proxy, method, args) -> null);
+        ConsoleCommandSender console = stub(ConsoleCommandSender.class, (proxy, method, args) -> {
+            if (method.getName().equals("getName")) return "CONSOLE";
+            return method.getReturnType() == boolean.class ? Boolean.TRUE : null;
+        });
+        Bukkit.setServer(stub(Server.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getScheduler":
+                    return scheduler;
+                case "getPluginManager":
+                    return pluginManager;
+                case "getConsoleSender":
+                    return console;
+                case "getLogger":
+                    return LOGGER;
+                case "getWorlds":
+                    return WORLDS;
+                case "getWorld":
+                    for (World world : WORLDS) {
+                        if (args[0].equals(world.getName()) || args[0].equals(world.getUID())) return world;
+                    }
+                    return null;
+                case "getOnlinePlayers":
+                    return Collections.emptyList();
+                case "getName":
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "bench";
+            }
+            return defaultValue(method.getReturnType());
+        }));
+    }
+
+    /**
+     * 创建管理器并注入到 {@link GameLobby}.
+     * 插件实例不经过构造器创建，只用于提供 id 与 logger.
+     */
+    static LobbyManager newManager() throws Exception {
+        install();
+        GameLobby plugin = allocate(GameLobby.class);
+        LobbyManager manager = new LobbyManager(plugin, Files.createTempDirectory("lobby-bench"));
+        Field inject = GameLobby.class.getDeclaredField("theManager");
+        inject.setAccessible(true);
+        inject.set(null, manager);
+        return manager;
+    }
+
+    /**
+     * 不经过构造器创建实例.
+     * JavaPlugin 的构造器要求插件由 PluginClassLoader 加载，基准环境无法满足；
+     * Unsafe 通过反射获取，编译期不引用内部 API.
+     */
+    private static <T> T allocate(Class<T> type) throws ReflectiveOperationException {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field field = unsafeClass.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        Object unsafe = field.get(null);
+        return type.cast(unsafeClass.getMethod("allocateInstance", Class.class).invoke(unsafe, type));
+    }
+
+    static World world(String name, List<Player> players) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes());
+        World world = stub(World.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getUID":
+                    return uid;
+                case "getPlayers":
+                    return players;
+                case "isChunkLoaded":
+                    return true;
+            }
+            return objectMethod(proxy, method.getName(), args, method.getReturnType());
+        });
+        WORLDS.add(world);
+        return world;
+    }
+
+    static Player player(UUID uuid, Location location) {
+        String name = "bench_" + uuid.toString().substring(0, 8);
+        return stub(Player.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return uuid;
+                case "getName":
+                case "getDisplayName":
+                    return name;
+                case "getLocation":
+                    return location;
+                case "getWorld":
+                    return location.getWorld();
+                case "isOnline":
+                case "teleport":
+                    return true;
+                case "getLocale":
+                    return "en_us";
+            }
+            return objectMethod(proxy, method.getName(), args, method.getReturnType());
+        });
+    }
+
+    private static Object objectMethod(Object proxy, String name, Object[] args, Class<?> type) {
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Stub@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+        return defaultValue(type);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == boolean.class) return false;
+        if (type == void.class) return null;
+        if (type == char.class) return (char) 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        if (type == double.class) return 0D;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(BenchServer.class.getClassLoader(), new Class[]{type}, handler);
+    }
+}
@@ -0,0 +1,213 @@
+package org.soraworld.lobby.bench;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.soraworld.lobby.core.FactionIndex;
+import org.soraworld.lobby.core.IGameLobby;
+import org.soraworld.lobby.core.LobbyData;
+import org.soraworld.lobby.core.RType;
+import org.soraworld.lobby.manager.LobbyManager;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 游戏大厅热点路径基准测试.
+ * 与范围类型有关的基准使用 {@link RangeState}，只与阵营有关的使用 {@link FactionState}，
+ * 只与人员索引有关的使用 {@link JoinState}，避免无关参数成倍增加组合数.
+ * 运行: ./gradlew jmh (已启用 gc profiler, 可观察每周期分配量).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LobbyBenchmark {
+
+    private static final int SPACING = 64;
+    private static final int RADIUS = 20;
+
+    /**
+     * 基准测试场景: 若干大厅与玩家, 每 4 个玩家中有 1 个未加入大厅.
+     */
+    public abstract static class Fixture {
+        LobbyManager manager;
+        BenchLobby[] lobbyArray;
+        Player[] playerArray;
+        Location[] sources;
+        Player[] idle;
+        IGameLobby[] idleLobbies;
+        int cursor = 0;
+
+        void setup(int players, int lobbies, int factions, RType type) throws Exception {
+            manager = BenchServer.newManager();
+            ArrayList<Player> online = new ArrayList<>();
+            World world = BenchServer.world("bench_world", online);
+            Random random = new Random(20191018L);
+            lobbyArray = new BenchLobby[lobbies];
+            for (int i = 0; i < lobbies; i++) {
+                lobbyArray[i] = new BenchLobby("bench_" + i, new Location(world, i * SPACING, 64, 0), RADIUS, type, factions);
+                manager.registerGameLobby(lobbyArray[i]);
+                lobbyArray[i].openLobby(null);
+            }
+            playerArray = new Player[players];
+            sources = new Location[players];
+            ArrayList<Player> idlePlayers = new ArrayList<>();
+            ArrayList<IGameLobby> idleTargets = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                IGameLobby lobby = lobbyArray[i % lobbies];
+                Location center = lobby.getCenter();
+                double x = center.getX() + (random.nextDouble() * 2 - 1) * RADIUS * 1.25;
+                double y = center.getY() + (random.nextDouble() * 2 - 1) * RADIUS * 1.25;
+                double z = center.getZ() + (random.nextDouble() * 2 - 1) * RADIUS * 1.25;
+                sources[i] = new Location(world, x, y, z);
+                playerArray[i] = BenchServer.player(new UUID(random.nextLong(), random.nextLong()), sources[i]);
+                online.add(playerArray[i]);
+                if ((i & 3) != 3) manager.tryJoinGame(playerArray[i], lobby.id());
+                else {
+                    idlePlayers.add(playerArray[i]);
+                    idleTargets.add(lobby);
+                }
+            }
+            idle = idlePlayers.toArray(new Player[0]);
+            idleLobbies = idleTargets.toArray(new IGameLobby[0]);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            manager.unregisterAllLobbies();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RangeState extends Fixture {
+
+        @Param({"50", "200"})
+        public int players;
+
+        @Param({"1", "50"})
+        public int lobbies;
+
+        @Param({"4", "16"})
+        public int factions;
+
+        @Param({"CUBE", "SPHERE", "CUBOID_COLUMN", "CIRCLE_COLUMN"})
+        public RType type;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            setup(players, lobbies, factions, type);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FactionState extends Fixture {
+
+        @Param({"50", "200"})
+        public int players;
+
+        @Param({"4", "16"})
+        public int factions;
+
+        Player[] members;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            setup(players, 1, factions, RType.CUBE);
+            // 先完整扫描一次并标记为已同步, 之后 updateMember 才会增量加入人员
+            BenchLobby lobby = lobbyArray[0];
+            lobby.checkLobby();
+            LobbyData data = manager.getLobbyData(lobby);
+            data.synced = true;
+            members = data.players.toArray(new Player[0]);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class JoinState extends Fixture {
+
+        @Param({"50", "200"})
+        public int players;
+
+        @Param({"1", "50"})
+        public int lobbies;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            setup(players, lobbies, 4, RType.CUBE);
+        }
+    }
+
+    /**
+     * 驱动器一个 tick: 所有大厅(周期为 1)执行一次 update.
+     */
+    @Benchmark
+    public void tick(RangeState state) {
+        state.manager.getTicker().run();
+    }
+
+    @Benchmark
+    public void update(RangeState state) {
+        for (BenchLobby lobby : state.lobbyArray) lobby.update();
+    }
+
+    @Benchmark
+    public void checkLobby(RangeState state) {
+        for (BenchLobby lobby : state.lobbyArray) lobby.checkLobby();
+    }
+
+    @Benchmark
+    public void inLobbyRange(RangeState state, Blackhole hole) {
+        IGameLobby lobby = state.lobbyArray[0];
+        for (Player player : state.playerArray) hole.consume(lobby.inLobbyRange(player));
+    }
+
+    @Benchmark
+    public void getNearestLoc(FactionState state, Blackhole hole) {
+        Set<Location> locations = state.lobbyArray[0].getTransfer().keySet();
+        for (Location source : state.sources) hole.consume(IGameLobby.getNearestLoc(locations, source));
+    }
+
+    @Benchmark
+    public void factionIndexNearest(FactionState state, Blackhole hole) {
+        FactionIndex index = state.lobbyArray[0].getFactionIndex();
+        for (Location source : state.sources) hole.consume(index.nearest(source.getX(), source.getY(), source.getZ()));
+    }
+
+    /**
+     * 大厅人员逐个移出后重新加入(模拟频繁死亡踢出).
+     */
+    @Benchmark
+    public void memberChurn(FactionState state) {
+        IGameLobby lobby = state.lobbyArray[0];
+        for (Player player : state.members) {
+            lobby.removeMember(player);
+            lobby.updateMember(player, player.getLocation());
+        }
+    }
+
+    @Benchmark
+    public void isJoined(JoinState state, Blackhole hole) {
+        IGameLobby lobby = state.lobbyArray[0];
+        for (Player player : state.playerArray) hole.consume(state.manager.isJoined(player, lobby));
+    }
+
+    /**
+     * 未加入大厅的玩家加入后立即移出.
+     */
+    @Benchmark
+    public void tryJoinGame(JoinState state) {
+        int index = state.cursor++ % state.idle.length;
+        Player player = state.idle[index];
+        IGameLobby lobby = state.idleLobbies[index];
+        state.manager.tryJoinGame(player, lobby.id());
+        lobby.removeMember(player);
+        state.manager.clearGame(player);
+    }
+}
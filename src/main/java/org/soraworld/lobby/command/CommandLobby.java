@@ -10,13 +10,13 @@ import org.soraworld.violet.inject.Command;
 import org.soraworld.violet.inject.Inject;
 import org.soraworld.violet.util.ListUtils;
 
-@Command(name = "lobby", usage = "/lobby open|close|info|finish|join|quit|list")
+@Command(name = "lobby", usage = "/lobby open|close|info|stats|spawn|finish|join|queue|quit|list")
 public final class CommandLobby {
 
     @Inject
     private LobbyManager manager;
 
-    @Sub(perm = "admin", usage = "/lobby open <game_name>")
+    @Sub(perm = "admin", usage = "/lobby open <game_name|selector>")
     public final SubExecutor open = (cmd, sender, args) -> {
         if (args.notEmpty()) {
             manager.tryOpenGame(sender, args.first());
@@ -24,9 +24,9 @@ public final class CommandLobby {
     };
 
     @Tab(path = "open")
-    public final TabExecutor tab_open = (cmd, sender, args) -> ListUtils.getMatchListIgnoreCase(args.first(), manager.getLobbies());
+    public final TabExecutor tab_open = (cmd, sender, args) -> manager.completeLobbies(args.first());
 
-    @Sub(perm = "admin", usage = "/lobby close <game_name>")
+    @Sub(perm = "admin", usage = "/lobby close <game_name|selector>")
     public final SubExecutor close = (cmd, sender, args) -> {
         if (args.notEmpty()) {
             manager.tryCloseGame(sender, args.first());
@@ -34,9 +34,9 @@ public final class CommandLobby {
     };
 
     @Tab(path = "close")
-    public final TabExecutor tab_close = (cmd, sender, args) -> ListUtils.getMatchListIgnoreCase(args.first(), manager.getLobbies());
+    public final TabExecutor tab_close = (cmd, sender, args) -> manager.completeLobbies(args.first());
 
-    @Sub(perm = "admin", usage = "/lobby info <game_name>")
+    @Sub(perm = "admin", usage = "/lobby info <game_name|selector>")
     public final SubExecutor info = (cmd, sender, args) -> {
         if (args.notEmpty()) {
             manager.showInfo(sender, args.first());
@@ -44,9 +44,32 @@ public final class CommandLobby {
     };
 
     @Tab(path = "info")
-    public final TabExecutor tab_info = (cmd, sender, args) -> ListUtils.getMatchListIgnoreCase(args.first(), manager.getLobbies());
+    public final TabExecutor tab_info = (cmd, sender, args) -> manager.completeLobbies(args.first());
 
-    @Sub(perm = "admin", usage = "/lobby finish <game_name>")
+    @Sub(perm = "admin", usage = "/lobby stats [game_name]")
+    public final SubExecutor stats = (cmd, sender, args) -> manager.showStats(sender, args.notEmpty() ? args.first() : null);
+
+    @Tab(path = "stats")
+    public final TabExecutor tab_stats = (cmd, sender, args) -> manager.completeLobbies(args.first());
+
+    @Sub(perm = "admin", usage = "/lobby spawn <template> [count]")
+    public final SubExecutor spawn = (cmd, sender, args) -> {
+        if (args.notEmpty()) {
+            int count = 1;
+            if (args.size() > 1) {
+                try {
+                    count = Integer.parseInt(args.get(1));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            manager.trySpawnInstances(sender, args.first(), count);
+        } else cmd.sendUsage(sender);
+    };
+
+    @Tab(path = "spawn")
+    public final TabExecutor tab_spawn = (cmd, sender, args) -> ListUtils.getMatchListIgnoreCase(args.first(), manager.getTemplates());
+
+    @Sub(perm = "admin", usage = "/lobby finish <game_name|selector>")
     public final SubExecutor finish = (cmd, sender, args) -> {
         if (args.notEmpty()) {
             manager.tryForceFinishGame(sender, args.first());
@@ -54,7 +77,7 @@ public final class CommandLobby {
     };
 
     @Tab(path = "finish")
-    public final TabExecutor tab_finish = (cmd, sender, args) -> ListUtils.getMatchListIgnoreCase(args.first(), manager.getLobbies());
+    public final TabExecutor tab_finish = (cmd, sender, args) -> manager.completeLobbies(args.first());
 
     @Sub(onlyPlayer = true, usage = "/lobby join <game_name>")
     public final SubExecutor<Player> join = (cmd, player, args) -> {
@@ -64,7 +87,17 @@ public final class CommandLobby {
     };
 
     @Tab(path = "join")
-    public final TabExecutor tab_join = (cmd, sender, args) -> ListUtils.getMatchListIgnoreCase(args.first(), manager.getLobbies());
+    public final TabExecutor tab_join = (cmd, sender, args) -> manager.completeLobbies(args.first());
+
+    @Sub(onlyPlayer = true, usage = "/lobby queue <game_type>")
+    public final SubExecutor<Player> queue = (cmd, player, args) -> {
+        if (args.notEmpty()) {
+            manager.tryQueueGame(player, args.first());
+        } else cmd.sendUsage(player);
+    };
+
+    @Tab(path = "queue")
+    public final TabExecutor tab_queue = (cmd, sender, args) -> ListUtils.getMatchListIgnoreCase(args.first(), manager.getGameTypes());
 
     @Sub(onlyPlayer = true, usage = "/lobby quit")
     public final SubExecutor<Player> quit = (cmd, player, args) -> manager.tryQuitGame(player);
@@ -138,4 +138,9 @@ public final class ExampleLobby implements IGameLobby {
     public void sendKey(CommandSender sender, String key, Object... args) {
         GameLobby.getLobbyManager().sendKey(sender, key, args);
     }
+
+    @Override
+    public String trans(String key, Object... args) {
+        return GameLobby.getLobbyManager().trans(key, args);
+    }
 }
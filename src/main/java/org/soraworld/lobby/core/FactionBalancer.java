@@ -0,0 +1,149 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * 阵营平衡.
+ * 将大厅人员重新分配到均分后的目标人数，同一队伍的玩家作为整体移动.
+ * 候选移动按 (队伍, 目标阵营) 的距离增量放入优先队列，
+ * 每次取代价最小且能减少不平衡度的移动，使玩家尽量留在离自己最近的阵营.
+ */
+public final class FactionBalancer {
+
+    private static final int MAX_ROUNDS = 4;
+
+    private static final class Move {
+        private final double cost;
+        private final int unit, from, to;
+
+        private Move(double cost, int unit, int from, int to) {
+            this.cost = cost;
+            this.unit = unit;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private FactionBalancer() {
+    }
+
+    /**
+     * 平衡大厅阵营, 直接修改 {@link LobbyData#factions} 与 {@link LobbyData#members}.
+     *
+     * @param lobby 大厅
+     * @param data  大厅数据
+     * @return 移动的玩家数
+     */
+    public static int balance(@NotNull IGameLobby lobby, @NotNull LobbyData data) {
+        FactionIndex index = lobby.getFactionIndex();
+        int factions = index.size(), size = data.players.size();
+        if (factions < 2 || size < 2) return 0;
+
+        // 按队伍合并为移动单元, 单元成员用 head/next 链表保存
+        int[] head = new int[size], next = new int[size], unitSize = new int[size], unitFaction = new int[size];
+        double[] xs = new double[size], ys = new double[size], zs = new double[size];
+        HashMap<Object, Integer> parties = new HashMap<>();
+        int units = 0;
+        for (int i = 0; i < size; i++) {
+            Player player = data.players.get(i);
+            Location loc = player.getLocation();
+            xs[i] = loc.getX();
+            ys[i] = loc.getY();
+            zs[i] = loc.getZ();
+            Object party = lobby.getParty(player);
+            Integer unit = party != null ? parties.get(party) : null;
+            if (unit == null) {
+                unit = units++;
+                if (party != null) parties.put(party, unit);
+                head[unit] = -1;
+                int faction = index.indexOf(data.members.get(player.getUniqueId()));
+                unitFaction[unit] = faction >= 0 ? faction : index.nearestIndex(xs[i], ys[i], zs[i]);
+            }
+            next[i] = head[unit];
+            head[unit] = i;
+            unitSize[unit]++;
+        }
+
+        int[] sizes = new int[factions];
+        for (int u = 0; u < units; u++) sizes[unitFaction[u]] += unitSize[u];
+        int[] targets = targets(sizes, size);
+
+        double[] cost = new double[units * factions];
+        for (int u = 0; u < units; u++) {
+            for (int f = 0; f < factions; f++) {
+                Location fac = index.get(f);
+                double sum = 0;
+                for (int i = head[u]; i >= 0; i = next[i]) {
+                    double dx = fac.getX() - xs[i], dy = fac.getY() - ys[i], dz = fac.getZ() - zs[i];
+                    sum += dx * dx + dy * dy + dz * dz;
+                }
+                cost[u * factions + f] = sum;
+            }
+        }
+
+        int moved = 0;
+        PriorityQueue<Move> queue = new PriorityQueue<>(Comparator.comparingDouble(move -> move.cost));
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            for (int u = 0; u < units; u++) {
+                int from = unitFaction[u];
+                if (sizes[from] <= targets[from]) continue;
+                for (int to = 0; to < factions; to++) {
+                    if (sizes[to] < targets[to]) {
+                        queue.add(new Move(cost[u * factions + to] - cost[u * factions + from], u, from, to));
+                    }
+                }
+            }
+            if (queue.isEmpty()) break;
+            boolean changed = false;
+            Move move;
+            while ((move = queue.poll()) != null) {
+                if (unitFaction[move.unit] != move.from) continue;
+                int s = unitSize[move.unit];
+                int before = Math.abs(sizes[move.from] - targets[move.from]) + Math.abs(sizes[move.to] - targets[move.to]);
+                int after = Math.abs(sizes[move.from] - s - targets[move.from]) + Math.abs(sizes[move.to] + s - targets[move.to]);
+                if (after >= before) continue;
+                sizes[move.from] -= s;
+                sizes[move.to] += s;
+                unitFaction[move.unit] = move.to;
+                moved += s;
+                changed = true;
+            }
+            if (!changed) break;
+        }
+
+        int[] playerFaction = new int[size];
+        for (int u = 0; u < units; u++) {
+            for (int i = head[u]; i >= 0; i = next[i]) playerFaction[i] = unitFaction[u];
+        }
+        data.factions.clear();
+        for (int i = 0; i < size; i++) {
+            Player player = data.players.get(i);
+            Location fac = index.get(playerFaction[i]);
+            data.members.put(player.getUniqueId(), fac);
+            data.factions.computeIfAbsent(fac, location -> new MemberList()).add(player);
+        }
+        data.snapshot = null;
+        data.membership++;
+        return moved;
+    }
+
+    /**
+     * 均分目标人数, 余数分给当前人数最多的阵营以减少移动.
+     */
+    private static int[] targets(int[] sizes, int total) {
+        int factions = sizes.length;
+        int[] targets = new int[factions];
+        Integer[] order = new Integer[factions];
+        for (int f = 0; f < factions; f++) {
+            targets[f] = total / factions;
+            order[f] = f;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(sizes[b], sizes[a]));
+        for (int r = 0; r < total % factions; r++) targets[order[r]]++;
+        return targets;
+    }
+}
@@ -0,0 +1,132 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * 阵营集会点索引.
+ * 集会点坐标展开为连续的基本类型数组，最近阵营查找不调用任何 {@link Location} 方法.
+ */
+public final class FactionIndex {
+
+    private final Location[] locations;
+    private final double[] coords;
+
+    private FactionIndex(@NotNull Collection<Location> keys) {
+        this.locations = keys.toArray(new Location[0]);
+        this.coords = new double[locations.length * 3];
+        for (int i = 0; i < locations.length; i++) {
+            coords[i * 3] = locations[i].getX();
+            coords[i * 3 + 1] = locations[i].getY();
+            coords[i * 3 + 2] = locations[i].getZ();
+        }
+    }
+
+    /**
+     * 由集会点集合构建索引.
+     *
+     * @param keys 集会点集合
+     * @return 阵营索引
+     */
+    @NotNull
+    public static FactionIndex of(@NotNull Collection<Location> keys) {
+        return new FactionIndex(keys);
+    }
+
+    /**
+     * 集会点数量.
+     *
+     * @return 数量
+     */
+    public int size() {
+        return locations.length;
+    }
+
+    /**
+     * 获取集会点.
+     *
+     * @param index 序号
+     * @return 集会点
+     */
+    @NotNull
+    public Location get(int index) {
+        return locations[index];
+    }
+
+    /**
+     * 获取集会点序号.
+     *
+     * @param location 集会点
+     * @return 序号, 不存在时返回 -1
+     */
+    public int indexOf(@Nullable Location location) {
+        if (location == null) return -1;
+        for (int i = 0; i < locations.length; i++) {
+            if (locations[i] == location) return i;
+        }
+        for (int i = 0; i < locations.length; i++) {
+            if (locations[i].equals(location)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 获取最近的集会点.
+     *
+     * @param x X
+     * @param y Y
+     * @param z Z
+     * @return 最近的集会点, 无集会点时返回 null
+     */
+    @Nullable
+    public Location nearest(double x, double y, double z) {
+        int index = nearest(coords, x, y, z);
+        return index >= 0 ? locations[index] : null;
+    }
+
+    /**
+     * 获取最近的集会点序号.
+     *
+     * @param x X
+     * @param y Y
+     * @param z Z
+     * @return 序号, 无集会点时返回 -1
+     */
+    public int nearestIndex(double x, double y, double z) {
+        return nearest(coords, x, y, z);
+    }
+
+    /**
+     * 在按 x,y,z 顺序展开的坐标数组中查找最近点.
+     * 逐轴累加距离，超过当前最小值即跳过，距离为 0 时立即返回.
+     *
+     * @param coords 坐标数组
+     * @param x      X
+     * @param y      Y
+     * @param z      Z
+     * @return 最近点序号, 数组为空时返回 -1
+     */
+    public static int nearest(@NotNull double[] coords, double x, double y, double z) {
+        double min = Double.MAX_VALUE;
+        int target = -1;
+        for (int i = 0, j = 0; j + 2 < coords.length; i++, j += 3) {
+            double d = coords[j] - x;
+            double distance = d * d;
+            if (distance >= min) continue;
+            d = coords[j + 2] - z;
+            distance += d * d;
+            if (distance >= min) continue;
+            d = coords[j + 1] - y;
+            distance += d * d;
+            if (distance < min) {
+                min = distance;
+                target = i;
+                if (distance == 0) break;
+            }
+        }
+        return target;
+    }
+}
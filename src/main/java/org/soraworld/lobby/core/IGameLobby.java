@@ -2,12 +2,14 @@ package org.soraworld.lobby.core;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.soraworld.lobby.GameLobby;
 import org.soraworld.lobby.event.*;
+import org.soraworld.lobby.manager.LobbyManager;
 
 import java.util.*;
 
@@ -72,6 +74,94 @@ public interface IGameLobby {
     @NotNull
     Map<Location, Location> getTransfer();
 
+    /**
+     * 游戏类型, 匹配队列按类型在同类大厅间分配玩家.
+     *
+     * @return 游戏类型, 默认为大厅 id
+     */
+    @NotNull
+    default String gameType() {
+        return id();
+    }
+
+    /**
+     * 大厅标签, 可用于 @tag= 选择器批量操作. 只在注册时读取一次.
+     *
+     * @return 标签集合
+     */
+    @NotNull
+    default Set<String> tags() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * 匹配队列分配策略.
+     * 同一类型以首个注册大厅的策略为准.
+     *
+     * @return 分配策略
+     */
+    @NotNull
+    default MatchPolicy matchPolicy() {
+        return MatchPolicy.FILL;
+    }
+
+    /**
+     * 是否使用增量人员检查.
+     * 开启后大厅只在开启时完整扫描一次，
+     * 之后根据玩家移动/传送/退出事件逐个更新人员与阵营.
+     *
+     * @return 是否增量检查
+     */
+    default boolean incremental() {
+        return false;
+    }
+
+    /**
+     * 游戏开始时每 tick 传送的玩家数量.
+     * 小于等于 0 时在同一 tick 内全部传送.
+     *
+     * @return 每批传送数量
+     */
+    default int teleportBatch() {
+        return 8;
+    }
+
+    /**
+     * 声明式大厅规则.
+     * 返回非空规则时，规则中设置的项由引擎直接判断，
+     * 对应的 {@link IGameLobby#shouldOpen()}/{@link IGameLobby#shouldStart}/
+     * {@link IGameLobby#shouldFinish}/{@link IGameLobby#shouldClose} 不再被调用.
+     * 只在注册时读取一次.
+     *
+     * @return 大厅规则, 默认 null
+     */
+    @Nullable
+    default LobbyRules rules() {
+        return null;
+    }
+
+    /**
+     * 游戏开始时是否平衡阵营人数.
+     * 开启后在 {@link IGameLobby#onStart()} 之前按均分人数重新分配阵营，
+     * 同一队伍的玩家保持在同一阵营，并尽量留在离自己最近的阵营.
+     *
+     * @return 是否平衡阵营
+     */
+    default boolean balanceFactions() {
+        return false;
+    }
+
+    /**
+     * 获取玩家所在的队伍, 平衡阵营时同一队伍的玩家不会被拆分.
+     *
+     * @param player 玩家
+     * @return 队伍标识, 不在队伍中时返回 null
+     */
+    @Nullable
+    default Object getParty(@NotNull Player player) {
+        return null;
+    }
+
     /**
      * 检查大厅开启的准备条件。
      * 自动开启与命令开启都会检查。
@@ -90,9 +180,23 @@ public interface IGameLobby {
      */
     boolean shouldOpen();
 
+    /**
+     * 下一次定时开启的时间.
+     * 返回非负值时不再轮询 {@link IGameLobby#shouldOpen()}，
+     * 大厅关闭期间休眠，到达该时间或手动开启时才恢复更新.
+     * 必须返回严格晚于当前时刻的时间. 默认使用 {@link LobbyRules} 中的开启计划.
+     *
+     * @return 开启时间(毫秒), -1 表示不使用定时开启
+     */
+    default long nextOpenTime() {
+        LobbyRules rules = GameLobby.getLobbyManager().getLobbyData(this).rules;
+        return rules != null ? rules.nextOpenTime(System.currentTimeMillis()) : -1;
+    }
+
     /**
      * 是否开始游戏.
      * 若开始,则传送玩家到 {@link IGameLobby#getTransfer} 设定的目标位置
+     * players 与 factions 为实时数据，需要保存或交给异步任务时请使用 {@link IGameLobby#getSnapshot()}.
      *
      * @param lobbyLife 从大厅启动到当前的时间，单位 tick
      * @param players   当前大厅玩家列表
@@ -104,6 +208,7 @@ public interface IGameLobby {
     /**
      * 是否结束游戏.
      * 若结束,则传送玩家到 {@link IGameLobby#getCenter} 设定的位置
+     * players 与 factions 为实时数据，需要保存或交给异步任务时请使用 {@link IGameLobby#getSnapshot()}.
      *
      * @param lobbyLife 从大厅启动到当前的时间，单位 tick
      * @param gameLife  游戏开始至此刻的时间
@@ -161,6 +266,13 @@ public interface IGameLobby {
      */
     void onStart();
 
+    /**
+     * 游戏开始后所有玩家传送完成时.
+     * 游戏时长从此刻开始计算.
+     */
+    default void onTeleported() {
+    }
+
     /**
      * 游戏周期更新时.
      *
@@ -188,6 +300,7 @@ public interface IGameLobby {
 
     /**
      * 额外信息，执行 info 指令时输出.
+     * 可通过 {@link IGameLobby#getSnapshot()} 读取人员信息.
      *
      * @return 额外信息列表
      */
@@ -211,20 +324,39 @@ public interface IGameLobby {
      */
     void sendKey(CommandSender sender, String key, Object... args);
 
+    /**
+     * 翻译消息键.
+     * 返回非空时广播只格式化一次并发送相同文本，
+     * 返回 null 时广播回退为逐个调用 {@link IGameLobby#sendKey}.
+     *
+     * @param key  键
+     * @param args 参数
+     * @return 翻译后的消息
+     */
+    @Nullable
+    default String trans(String key, Object... args) {
+        return null;
+    }
+
     /**
      * 开启游戏大厅.
      *
      * @param sender 命令执行者
      */
     default void openLobby(@Nullable CommandSender sender) {
-        if (checkPrepare()) {
+        if (!GameLobby.getLobbyManager().getLobbyData(this).suspended && checkPrepare()) {
             LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
             if (data.state.canOpen()) {
-                Bukkit.getPluginManager().callEvent(new LobbyOpenEvent(this));
+                if (LobbyOpenEvent.hasListeners()) Bukkit.getPluginManager().callEvent(new LobbyOpenEvent(this));
                 onOpen();
                 data.lobbyLife = 0;
                 data.gameLife = 0;
+                data.synced = false;
+                data.startAt = -1;
+                data.evaluated = -1;
                 data.state = GameState.OPEN;
+                if (data.entry != null) GameLobby.getLobbyManager().getTicker().wake(data.entry);
+                GameLobby.getLobbyManager().onStateChange(this, data);
                 if (sender != null) GameLobby.getLobbyManager().sendKey(sender, "openLobby", display());
             } else if (sender != null) {
                 GameLobby.getLobbyManager().sendKey(sender, "cantOpenLobby", display(), data.state);
@@ -243,14 +375,23 @@ public interface IGameLobby {
     default void closeLobby(@Nullable CommandSender sender) {
         LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
         if (data.state.canClose()) {
-            Bukkit.getPluginManager().callEvent(new LobbyCloseEvent(this));
+            if (LobbyCloseEvent.hasListeners()) Bukkit.getPluginManager().callEvent(new LobbyCloseEvent(this));
             onClose();
+            if (!data.players.isEmpty()) {
+                ArrayList<Player> players = new ArrayList<>(data.players);
+                if (sender instanceof Player) players.remove(sender);
+                GameLobby.getLobbyManager().getTicker().defer(() -> GameLobby.getLobbyManager().broadcastKey(players, "lobbyClosed", display()));
+            }
             if (data.state != GameState.FINISH) {
                 data.players.forEach(GameLobby.getLobbyManager()::clearGame);
                 data.players.clear();
                 data.factions.clear();
+                data.members.clear();
+                data.membership++;
             }
+            data.synced = false;
             data.state = GameState.CLOSE;
+            GameLobby.getLobbyManager().onStateChange(this, data);
             if (sender != null) GameLobby.getLobbyManager().sendKey(sender, "closeLobby", display());
         } else if (sender != null) {
             GameLobby.getLobbyManager().sendKey(sender, "stateCantClose", display(), data.state);
@@ -262,35 +403,92 @@ public interface IGameLobby {
      */
     default void update() {
         LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
-        if (shouldOpen()) openLobby(null);
-        if (data.state != GameState.CLOSE) {
+        LobbyTimings timings = data.timings;
+        long begin = System.nanoTime(), time = begin, now;
+        LobbyRules rules = data.rules;
+        if (data.nextOpen >= 0) {
+            if (System.currentTimeMillis() >= data.nextOpen) {
+                openLobby(null);
+                data.nextOpen = nextOpenTime();
+            }
+        } else if (shouldOpen()) openLobby(null);
+        timings.record(LobbyTimings.Phase.OPEN, (now = System.nanoTime()) - time);
+        if (data.state == GameState.CLOSE) {
+            if (data.nextOpen >= 0 && data.entry != null) GameLobby.getLobbyManager().getTicker().park(data.entry, data.nextOpen);
+        } else {
             data.lobbyLife += cycle();
+            data.snapshot = null;
             if (data.state == GameState.OPEN) {
-                checkLobby();
-                if (shouldStart(data.lobbyLife, data.players, data.factions)) {
-                    Bukkit.getPluginManager().callEvent(new LobbyStartEvent(this));
+                if (!data.synced) {
+                    LobbyTicker ticker = GameLobby.getLobbyManager().getTicker();
+                    if (!incremental() && data.lobbyLife > cycle() && ticker.isOverBudget()) {
+                        // 预算不足时沿用上一周期的人员数据，重新扫描推迟执行
+                        if (!data.rescanning) {
+                            data.rescanning = true;
+                            ticker.defer(() -> {
+                                data.rescanning = false;
+                                if (data.state == GameState.OPEN && !data.synced) checkLobby();
+                            });
+                        }
+                    } else {
+                        time = now;
+                        checkLobby();
+                        data.synced = incremental();
+                        timings.record(LobbyTimings.Phase.CHECK, (now = System.nanoTime()) - time);
+                    }
+                }
+                time = now;
+                boolean start;
+                if (rules != null && rules.hasStartRule()) {
+                    if (data.evaluated != data.membership) {
+                        data.evaluated = data.membership;
+                        if (!rules.isReady(data.players, data.factions, getFactionIndex().size())) data.startAt = -1;
+                        else if (data.startAt < 0) data.startAt = data.lobbyLife + rules.getCountdown();
+                    }
+                    start = data.startAt >= 0 && (data.lobbyLife >= data.startAt || rules.isFull(data.players.size()));
+                } else start = shouldStart(data.lobbyLife, data.players, data.factions);
+                // 无人的区块会被服务器卸载，每个周期重新检查; 有开始规则时只在倒计时期间预加载
+                if (rules == null || !rules.hasStartRule() || data.startAt >= 0) preloadTargets(2);
+                if (start) {
+                    if (balanceFactions()) FactionBalancer.balance(this, data);
+                    if (LobbyStartEvent.hasListeners()) Bukkit.getPluginManager().callEvent(new LobbyStartEvent(this));
                     onStart();
                     data.state = GameState.START;
+                    GameLobby.getLobbyManager().onStateChange(this, data);
                     Map<Location, Location> transfer = getTransfer();
+                    TeleportQueue queue = new TeleportQueue(this, teleportBatch());
                     data.factions.forEach((fac, players) -> {
                         Location target = transfer.get(fac);
-                        if (target != null) players.forEach(player -> {
-                            Location loc = onPlayerStart(player, target);
-                            if (loc != null) player.teleport(loc);
-                        });
+                        if (target != null) players.forEach(player -> queue.add(player, target));
                     });
+                    data.teleport = queue;
+                    GameLobby.getLobbyManager().getTicker().submit(queue);
                 }
+                timings.record(LobbyTimings.Phase.START, (now = System.nanoTime()) - time);
+            }
+            time = now;
+            if (data.state == GameState.START && data.teleport == null) {
+                data.gameLife += cycle();
+                data.snapshot = null;
+            }
+            if (LobbyUpdateEvent.hasListeners()) {
+                if (data.updateEvent == null) data.updateEvent = new LobbyUpdateEvent(this);
+                Bukkit.getPluginManager().callEvent(data.updateEvent);
             }
-            if (data.state == GameState.START) data.gameLife += cycle();
-            Bukkit.getPluginManager().callEvent(new LobbyUpdateEvent(this));
             onUpdate(data.lobbyLife, data.gameLife);
-            if (data.state.canFinish() && shouldFinish(data.lobbyLife, data.gameLife, data.players, data.factions)) {
+            timings.record(LobbyTimings.Phase.UPDATE, (now = System.nanoTime()) - time);
+            time = now;
+            if (data.state.canFinish() && (rules != null && rules.hasFinishRule() ? data.gameLife >= rules.getMaxGameTime()
+                    : shouldFinish(data.lobbyLife, data.gameLife, data.players, data.factions))) {
                 finishGame();
             }
-            if (data.state.canClose() && shouldClose(data.lobbyLife)) {
+            if (data.state.canClose() && (rules != null && rules.hasCloseRule() ? data.lobbyLife >= rules.getCloseAfter()
+                    : shouldClose(data.lobbyLife))) {
                 closeLobby(null);
             }
+            timings.record(LobbyTimings.Phase.FINISH, (now = System.nanoTime()) - time);
         }
+        timings.record(LobbyTimings.Phase.TOTAL, now - begin);
     }
 
     /**
@@ -298,111 +496,158 @@ public interface IGameLobby {
      */
     default void finishGame() {
         LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
-        Bukkit.getPluginManager().callEvent(new LobbyFinishEvent(this));
+        if (LobbyFinishEvent.hasListeners()) Bukkit.getPluginManager().callEvent(new LobbyFinishEvent(this));
         onFinish();
+        if (data.teleport != null) {
+            data.teleport.cancel();
+            data.teleport = null;
+        }
         // GameLobby.getLobbyManager().clearGame(player);
-        data.players.forEach(this::tpPlayerToLobby);
+        // 大厅世界卸载时不传送回大厅
+        if (!data.suspended) data.players.forEach(this::tpPlayerToLobby);
         // data.players.clear();
         // data.factions.clear();
         data.state = GameState.FINISH;
+        GameLobby.getLobbyManager().onStateChange(this, data);
+    }
+
+    /**
+     * 预加载传送目标所在的区块.
+     * 大厅开启期间(有开始规则时为倒计时期间)每个周期检查并最多加载若干个区块，游戏开始时传送不再同步加载.
+     *
+     * @param limit 本次最多加载的区块数
+     * @return 是否已全部加载
+     */
+    default boolean preloadTargets(int limit) {
+        for (Location target : getTransfer().values()) {
+            World world = target.getWorld();
+            if (world == null) continue;
+            int cx = target.getBlockX() >> 4, cz = target.getBlockZ() >> 4;
+            if (!world.isChunkLoaded(cx, cz)) {
+                if (limit-- <= 0) return false;
+                world.loadChunk(cx, cz);
+            }
+        }
+        return true;
     }
 
     /**
      * 检查大厅人员状态.
      */
     default void checkLobby() {
-        LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
+        LobbyManager manager = GameLobby.getLobbyManager();
+        LobbyData data = manager.getLobbyData(this);
         data.players.clear();
         data.factions.clear();
-        Location center = getCenter();
-        if (center == null) return;
-        double cX = center.getX(), cY = center.getY(), cZ = center.getZ();
-        int radius = getRadius();
-        RType type = getRType();
-        Set<Location> locations = getTransfer().keySet();
-        center.getWorld().getPlayers().forEach(player -> {
-            if (GameLobby.getLobbyManager().isJoined(player, this)) {
+        // 人员与阵营都没有变化时不增加 membership, 规则缓存保持有效
+        boolean[] changed = {false};
+        LobbyRegion region = getRegion();
+        if (region != null) {
+            FactionIndex index = getFactionIndex();
+            manager.getPlayerGrid(region.world).query(region.minX, region.minZ, region.maxX, region.maxZ, player -> {
                 Location pLoc = player.getLocation();
-                double pX = pLoc.getX(), pY = pLoc.getY(), pZ = pLoc.getZ();
-                switch (type) {
-                    case CUBE: {
-                        double minX = cX - radius, minY = cY - radius, minZ = cZ - radius;
-                        double maxX = cX + radius, maxY = cY + radius, maxZ = cZ + radius;
-                        if (pX >= minX && pX <= maxX && pY >= minY && pY <= maxY && pZ >= minZ && pZ <= maxZ) {
-                            Location fac = getNearestLoc(locations, pLoc);
-                            data.factions.computeIfAbsent(fac, location -> new ArrayList<>()).add(player);
-                            data.players.add(player);
-                        }
-                        break;
-                    }
-                    case CUBOID_COLUMN: {
-                        double minX = cX - radius, minZ = cZ - radius;
-                        double maxX = cX + radius, maxZ = cZ + radius;
-                        if (pX >= minX && pX <= maxX && pZ >= minZ && pZ <= maxZ) {
-                            Location fac = getNearestLoc(locations, pLoc);
-                            data.factions.computeIfAbsent(fac, location -> new ArrayList<>()).add(player);
-                            data.players.add(player);
-                        }
-                        break;
-                    }
-                    case SPHERE: {
-                        if ((cX - pX) * (cX - pX) + (cY - pY) * (cY - pY) + (cZ - pZ) * (cZ - pZ) <= radius * radius) {
-                            Location fac = getNearestLoc(locations, pLoc);
-                            data.factions.computeIfAbsent(fac, location -> new ArrayList<>()).add(player);
-                            data.players.add(player);
-                        }
-                        break;
-                    }
-                    case CIRCLE_COLUMN: {
-                        if ((cX - pX) * (cX - pX) + (cZ - pZ) * (cZ - pZ) <= radius * radius) {
-                            Location fac = getNearestLoc(locations, pLoc);
-                            data.factions.computeIfAbsent(fac, location -> new ArrayList<>()).add(player);
-                            data.players.add(player);
-                        }
+                if (region.contains(pLoc.getX(), pLoc.getY(), pLoc.getZ()) && manager.isJoined(player, this)) {
+                    Location fac = index.nearest(pLoc.getX(), pLoc.getY(), pLoc.getZ());
+                    data.factions.computeIfAbsent(fac, location -> new MemberList()).add(player);
+                    data.players.add(player);
+                    if (!data.members.containsKey(player.getUniqueId()) || !Objects.equals(fac, data.members.put(player.getUniqueId(), fac))) {
+                        data.members.put(player.getUniqueId(), fac);
+                        changed[0] = true;
                     }
                 }
-            }
-        });
+            });
+        }
+        if (data.members.size() != data.players.size()) {
+            data.members.keySet().removeIf(uuid -> !data.players.contains(uuid));
+            changed[0] = true;
+        }
+        if (changed[0]) {
+            data.snapshot = null;
+            data.membership++;
+        }
     }
 
+    /**
+     * 玩家是否在大厅范围内.
+     *
+     * @param player 玩家
+     * @return 是否在范围内
+     */
     default boolean inLobbyRange(@NotNull Player player) {
+        return inLobbyRange(player.getLocation());
+    }
+
+    /**
+     * 位置是否在大厅范围内.
+     *
+     * @param pLoc 位置
+     * @return 是否在范围内
+     */
+    default boolean inLobbyRange(@NotNull Location pLoc) {
+        LobbyRegion region = getRegion();
+        return region != null && region.contains(pLoc);
+    }
+
+    /**
+     * 获取编译后的大厅范围(缓存).
+     *
+     * @return 大厅范围, 中心未配置时返回 null
+     */
+    @Nullable
+    default LobbyRegion getRegion() {
+        LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
+        if (data.region == null) data.region = LobbyRegion.compile(this);
+        return data.region;
+    }
+
+    /**
+     * 大厅所在世界的名称, 用于在世界加载/卸载时找到大厅.
+     * 启动时所在世界尚未加载(中心位置没有世界)的大厅应重写此方法.
+     *
+     * @return 世界名称, 未配置时返回 null
+     */
+    @Nullable
+    default String worldName() {
         Location center = getCenter();
-        if (center != null) {
-            int radius = getRadius();
-            double cX = center.getX(), cY = center.getY(), cZ = center.getZ();
-            Location pLoc = player.getLocation();
-            double pX = pLoc.getX(), pY = pLoc.getY(), pZ = pLoc.getZ();
-            switch (getRType()) {
-                case CUBE: {
-                    double minX = cX - radius, minY = cY - radius, minZ = cZ - radius;
-                    double maxX = cX + radius, maxY = cY + radius, maxZ = cZ + radius;
-                    if (pX >= minX && pX <= maxX && pY >= minY && pY <= maxY && pZ >= minZ && pZ <= maxZ) {
-                        return true;
-                    }
-                    break;
-                }
-                case CUBOID_COLUMN: {
-                    double minX = cX - radius, minZ = cZ - radius;
-                    double maxX = cX + radius, maxZ = cZ + radius;
-                    if (pX >= minX && pX <= maxX && pZ >= minZ && pZ <= maxZ) {
-                        return true;
-                    }
-                    break;
-                }
-                case SPHERE: {
-                    if ((cX - pX) * (cX - pX) + (cY - pY) * (cY - pY) + (cZ - pZ) * (cZ - pZ) <= radius * radius) {
-                        return true;
-                    }
-                    break;
-                }
-                case CIRCLE_COLUMN: {
-                    if ((cX - pX) * (cX - pX) + (cZ - pZ) * (cZ - pZ) <= radius * radius) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return center != null && center.getWorld() != null ? center.getWorld().getName() : null;
+    }
+
+    /**
+     * 获取阵营集会点索引(缓存).
+     *
+     * @return 阵营索引
+     */
+    @NotNull
+    default FactionIndex getFactionIndex() {
+        LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
+        if (data.factionIndex == null) data.factionIndex = FactionIndex.of(getTransfer().keySet());
+        return data.factionIndex;
+    }
+
+    /**
+     * 大厅配置(中心/半径/半径类型/传送映射)变化后调用，
+     * 使缓存的大厅范围与阵营索引失效并在下次使用时重新编译.
+     */
+    default void invalidate() {
+        LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
+        data.region = null;
+        data.factionIndex = null;
+        GameLobby.getLobbyManager().relocate(this);
+    }
+
+    /**
+     * 获取大厅当前的不可变快照.
+     * 每次时间/人员/状态变化后最多构造一次.
+     * 只能在主线程调用(构造时读取实时人员列表)，得到的快照可以交给其他线程.
+     *
+     * @return 快照
+     */
+    @NotNull
+    default LobbySnapshot getSnapshot() {
+        LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
+        LobbySnapshot snapshot = data.snapshot;
+        if (snapshot == null) data.snapshot = snapshot = LobbySnapshot.of(this, data);
+        return snapshot;
     }
 
     /**
@@ -438,12 +683,67 @@ public interface IGameLobby {
      * @param player 玩家
      */
     default void kickPlayer(@NotNull Player player) {
-        LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
-        data.players.remove(player);
-        data.factions.forEach((location, ps) -> ps.remove(player));
+        removeMember(player);
         GameLobby.getLobbyManager().clearGame(player);
     }
 
+    /**
+     * 增量更新玩家的大厅人员与阵营状态.
+     * 仅在大厅开启且已完成首次扫描后生效.
+     *
+     * @param player 玩家
+     * @param loc    玩家当前(或即将到达)的位置
+     */
+    default void updateMember(@NotNull Player player, @NotNull Location loc) {
+        LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
+        if (data.state != GameState.OPEN || !data.synced) return;
+        if (!inLobbyRange(loc)) {
+            removeMember(player);
+            return;
+        }
+        UUID uuid = player.getUniqueId();
+        Location fac = getFactionIndex().nearest(loc.getX(), loc.getY(), loc.getZ());
+        if (data.members.containsKey(uuid)) {
+            Location old = data.members.get(uuid);
+            if (Objects.equals(old, fac)) return;
+            List<Player> list = data.factions.get(old);
+            if (list != null && list.remove(player) && list.isEmpty()) data.factions.remove(old);
+        } else data.players.add(player);
+        data.snapshot = null;
+        data.membership++;
+        data.members.put(uuid, fac);
+        data.factions.computeIfAbsent(fac, location -> new MemberList()).add(player);
+    }
+
+    /**
+     * 获取玩家所在的阵营集会点.
+     *
+     * @param player 玩家
+     * @return 阵营集会点, 不在大厅人员中时返回 null
+     */
+    @Nullable
+    default Location getPlayerFaction(@NotNull Player player) {
+        return GameLobby.getLobbyManager().getLobbyData(this).members.get(player.getUniqueId());
+    }
+
+    /**
+     * 从大厅人员与阵营列表中移除玩家.
+     *
+     * @param player 玩家
+     */
+    default void removeMember(@NotNull Player player) {
+        LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
+        UUID uuid = player.getUniqueId();
+        Location fac = data.members.remove(uuid);
+        if (fac != null) {
+            data.snapshot = null;
+            data.membership++;
+            data.players.remove(uuid);
+            List<Player> list = data.factions.get(fac);
+            if (list != null && list.remove(player) && list.isEmpty()) data.factions.remove(fac);
+        }
+    }
+
     /**
      * 传送玩家到游戏大厅.
      *
@@ -477,7 +777,10 @@ public interface IGameLobby {
      */
     default void gameBroadcastKey(@NotNull String key, Object... args) {
         LobbyData data = GameLobby.getLobbyManager().getLobbyData(this);
-        data.players.forEach(player -> sendKey(player, key, args));
+        if (data.players.isEmpty()) return;
+        String message = trans(key, args);
+        if (message != null) data.players.forEach(player -> send(player, message));
+        else data.players.forEach(player -> sendKey(player, key, args));
     }
 
     /**
@@ -489,9 +792,11 @@ public interface IGameLobby {
      */
     static Location getNearestLoc(@NotNull Collection<Location> locations, @NotNull Location source) {
         double min = Double.MAX_VALUE;
+        double x = source.getX(), y = source.getY(), z = source.getZ();
         Location target = null;
         for (Location loc : locations) {
-            double distance = source.distanceSquared(loc);
+            double dx = loc.getX() - x, dy = loc.getY() - y, dz = loc.getZ() - z;
+            double distance = dx * dx + dy * dy + dz * dz;
             if (distance < min) {
                 min = distance;
                 target = loc;
@@ -2,17 +2,37 @@ package org.soraworld.lobby.core;
 
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
+import org.soraworld.lobby.event.LobbyUpdateEvent;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.UUID;
 
 public class LobbyData {
     public long gameLife = 0;
     public long lobbyLife = 0;
     public GameState state = GameState.CLOSE;
-    public BukkitTask task = null;
-    public ArrayList<Player> players = new ArrayList<>();
+    public LobbyTicker.Entry entry = null;
+    public boolean synced = false;
+    public boolean rescanning = false;
+    public boolean suspended = false;
+    public TeleportQueue teleport = null;
+    public LobbyUpdateEvent updateEvent = null;
+    public LobbyRules rules = null;
+    public String gameType = null;
+    public long nextOpen = -1;
+    public long startAt = -1;
+    public int membership = 0;
+    public int evaluated = -1;
+    public int joined = 0;
+    public long idleSince = -1;
+    public final LobbyTimings timings = new LobbyTimings();
+    public volatile LobbySnapshot snapshot = null;
+    public LobbyRegion region = null;
+    public FactionIndex factionIndex = null;
+    public MemberList players = new MemberList();
     public HashMap<Location, List<Player>> factions = new HashMap<>();
+    public HashMap<UUID, Location> members = new HashMap<>();
+    public HashMap<UUID, Integer> restoring = new HashMap<>();
+    public HashMap<UUID, Long> pending = new HashMap<>();
 }
@@ -0,0 +1,92 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * 编译后的大厅范围.
+ * 由大厅的中心、半径与半径类型预先计算出边界与半径平方，
+ * 包含判断只需要若干次浮点比较.
+ * 世界在编译时按名称重新获取，比较时使用 UID，世界卸载重载后重新编译即可继续使用.
+ */
+public final class LobbyRegion {
+
+    public final World world;
+    public final UUID worldId;
+    public final RType type;
+    public final double centerX, centerY, centerZ;
+    public final double minX, minY, minZ;
+    public final double maxX, maxY, maxZ;
+    public final double radiusSquared;
+    private final boolean round, column;
+
+    private LobbyRegion(@NotNull Location center, @NotNull World world, int radius, @NotNull RType type) {
+        this.world = world;
+        this.worldId = world.getUID();
+        this.type = type;
+        this.centerX = center.getX();
+        this.centerY = center.getY();
+        this.centerZ = center.getZ();
+        this.round = type == RType.SPHERE || type == RType.CIRCLE_COLUMN;
+        this.column = type == RType.CUBOID_COLUMN || type == RType.CIRCLE_COLUMN;
+        this.minX = centerX - radius;
+        this.maxX = centerX + radius;
+        this.minZ = centerZ - radius;
+        this.maxZ = centerZ + radius;
+        this.minY = column ? Double.NEGATIVE_INFINITY : centerY - radius;
+        this.maxY = column ? Double.POSITIVE_INFINITY : centerY + radius;
+        this.radiusSquared = (double) radius * radius;
+    }
+
+    /**
+     * 编译大厅范围.
+     *
+     * @param lobby 大厅
+     * @return 大厅范围, 中心未配置或世界未加载时返回 null
+     */
+    @Nullable
+    public static LobbyRegion compile(@NotNull IGameLobby lobby) {
+        Location center = lobby.getCenter();
+        String name = lobby.worldName();
+        if (center == null || name == null) return null;
+        World world = Bukkit.getWorld(name);
+        if (world == null) return null;
+        return new LobbyRegion(center, world, lobby.getRadius(), lobby.getRType());
+    }
+
+    /**
+     * 坐标是否在范围内(不检查世界).
+     *
+     * @param x X
+     * @param y Y
+     * @param z Z
+     * @return 是否在范围内
+     */
+    public boolean contains(double x, double y, double z) {
+        if (x < minX || x > maxX || z < minZ || z > maxZ || y < minY || y > maxY) return false;
+        if (!round) return true;
+        double dx = x - centerX, dz = z - centerZ;
+        double distance = dx * dx + dz * dz;
+        if (!column) {
+            double dy = y - centerY;
+            distance += dy * dy;
+        }
+        return distance <= radiusSquared;
+    }
+
+    /**
+     * 位置是否在范围内.
+     *
+     * @param loc 位置
+     * @return 是否在范围内
+     */
+    public boolean contains(@NotNull Location loc) {
+        World other = loc.getWorld();
+        return (other == world || other != null && worldId.equals(other.getUID())) && contains(loc.getX(), loc.getY(), loc.getZ());
+    }
+}
@@ -0,0 +1,237 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.soraworld.lobby.GameLobby;
+import org.soraworld.lobby.manager.LobbyManager;
+
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 声明式大厅规则.
+ * 由引擎直接判断开启/开始/结束/关闭，只在人员变化或到达计划时间时重新计算.
+ * 未设置的规则项仍回退到 {@link IGameLobby} 对应的 should 方法.
+ * 时间单位除开启时间外均为 tick.
+ */
+public final class LobbyRules {
+
+    private int minPlayers = 0, maxPlayers = 0, minPerFaction = 0;
+    private long countdown = 0, maxGameTime = 0, closeAfter = 0;
+    private final TreeSet<LocalTime> openTimes = new TreeSet<>();
+    private final EnumSet<DayOfWeek> openDays = EnumSet.noneOf(DayOfWeek.class);
+    private ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * 开始游戏所需最少玩家数.
+     *
+     * @param minPlayers 人数
+     * @return 规则
+     */
+    public LobbyRules minPlayers(int minPlayers) {
+        this.minPlayers = minPlayers;
+        return this;
+    }
+
+    /**
+     * 最大玩家数，达到后立即开始且拒绝新玩家加入.
+     *
+     * @param maxPlayers 人数
+     * @return 规则
+     */
+    public LobbyRules maxPlayers(int maxPlayers) {
+        this.maxPlayers = maxPlayers;
+        return this;
+    }
+
+    /**
+     * 每个阵营最少玩家数.
+     *
+     * @param minPerFaction 人数
+     * @return 规则
+     */
+    public LobbyRules minPerFaction(int minPerFaction) {
+        this.minPerFaction = minPerFaction;
+        return this;
+    }
+
+    /**
+     * 人数满足条件后的开始倒计时.
+     *
+     * @param countdown tick
+     * @return 规则
+     */
+    public LobbyRules countdown(long countdown) {
+        this.countdown = countdown;
+        return this;
+    }
+
+    /**
+     * 最长游戏时间.
+     *
+     * @param maxGameTime tick
+     * @return 规则
+     */
+    public LobbyRules maxGameTime(long maxGameTime) {
+        this.maxGameTime = maxGameTime;
+        return this;
+    }
+
+    /**
+     * 大厅开启后多久关闭.
+     *
+     * @param closeAfter tick
+     * @return 规则
+     */
+    public LobbyRules closeAfter(long closeAfter) {
+        this.closeAfter = closeAfter;
+        return this;
+    }
+
+    /**
+     * 添加定时开启计划.
+     * 格式: [星期列表] 时间列表, 例如 "20:00", "SAT,SUN 14:00,20:30", "* 08:00".
+     * 无法解析的星期或时间会在控制台提示并忽略.
+     *
+     * @param expression 计划表达式
+     * @return 规则
+     */
+    public LobbyRules openAt(@NotNull String expression) {
+        String[] parts = expression.trim().split("\\s+");
+        String times = parts[parts.length - 1];
+        if (parts.length > 1 && !parts[0].equals("*")) {
+            for (String day : parts[0].split(",")) {
+                DayOfWeek value = parseDay(day);
+                if (value != null) openDays.add(value);
+                else invalid(day, expression);
+            }
+        } else openDays.addAll(EnumSet.allOf(DayOfWeek.class));
+        for (String time : times.split(",")) {
+            try {
+                openTimes.add(LocalTime.parse(time.trim()));
+            } catch (DateTimeParseException e) {
+                invalid(time, expression);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 计划时间使用的时区, 默认为系统时区.
+     *
+     * @param zone 时区
+     * @return 规则
+     */
+    public LobbyRules zone(@NotNull ZoneId zone) {
+        this.zone = zone;
+        return this;
+    }
+
+    public int getMinPlayers() {
+        return minPlayers;
+    }
+
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public long getCountdown() {
+        return countdown;
+    }
+
+    public long getMaxGameTime() {
+        return maxGameTime;
+    }
+
+    public long getCloseAfter() {
+        return closeAfter;
+    }
+
+    public boolean hasOpenRule() {
+        return !openTimes.isEmpty();
+    }
+
+    public boolean hasStartRule() {
+        return minPlayers > 0 || maxPlayers > 0 || minPerFaction > 0 || countdown > 0;
+    }
+
+    public boolean hasFinishRule() {
+        return maxGameTime > 0;
+    }
+
+    public boolean hasCloseRule() {
+        return closeAfter > 0;
+    }
+
+    /**
+     * 人数条件是否满足(满足后开始倒计时).
+     *
+     * @param players      玩家列表
+     * @param factions     阵营列表
+     * @param factionCount 阵营总数
+     * @return 是否满足
+     */
+    public boolean isReady(@NotNull List<Player> players, @NotNull Map<Location, List<Player>> factions, int factionCount) {
+        if (players.size() < Math.max(1, minPlayers)) return false;
+        if (minPerFaction > 0) {
+            if (factions.size() < factionCount) return false;
+            for (List<Player> list : factions.values()) {
+                if (list.size() < minPerFaction) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 人数是否已满.
+     *
+     * @param players 人数
+     * @return 是否已满
+     */
+    public boolean isFull(int players) {
+        return maxPlayers > 0 && players >= maxPlayers;
+    }
+
+    /**
+     * 计算下一次开启时间.
+     *
+     * @param now 当前时间(毫秒)
+     * @return 下一次开启时间(毫秒), 没有计划时返回 -1
+     */
+    public long nextOpenTime(long now) {
+        if (openTimes.isEmpty()) return -1;
+        ZonedDateTime current = Instant.ofEpochMilli(now).atZone(zone);
+        LocalDate date = current.toLocalDate();
+        for (int day = 0; day <= 7; day++, date = date.plusDays(1)) {
+            if (!openDays.contains(date.getDayOfWeek())) continue;
+            for (LocalTime time : openTimes) {
+                ZonedDateTime candidate = date.atTime(time).atZone(zone);
+                if (candidate.isAfter(current)) return candidate.toInstant().toEpochMilli();
+            }
+        }
+        return -1;
+    }
+
+    private static DayOfWeek parseDay(String day) {
+        String name = day.trim().toUpperCase(Locale.ROOT);
+        for (DayOfWeek value : DayOfWeek.values()) {
+            if (value.name().startsWith(name) && name.length() >= 3) return value;
+        }
+        try {
+            return DayOfWeek.of(Integer.parseInt(name));
+        } catch (NumberFormatException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static void invalid(String entry, String expression) {
+        LobbyManager manager = GameLobby.getLobbyManager();
+        if (manager != null) manager.consoleKey("invalidOpenAt", entry, expression);
+    }
+}
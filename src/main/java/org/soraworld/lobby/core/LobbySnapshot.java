@@ -0,0 +1,165 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 大厅状态的不可变快照.
+ * 每个周期最多构造一次，由所有事件与回调共享，可以安全地交给异步任务.
+ */
+public final class LobbySnapshot {
+
+    private final String id;
+    private final GameState state;
+    private final long lobbyLife, gameLife;
+    private final UUID[] players;
+    private final int[] playerFactions;
+    private final Location[] factions;
+    private final int[] factionSizes;
+
+    private LobbySnapshot(String id, GameState state, long lobbyLife, long gameLife,
+                          UUID[] players, int[] playerFactions, Location[] factions, int[] factionSizes) {
+        this.id = id;
+        this.state = state;
+        this.lobbyLife = lobbyLife;
+        this.gameLife = gameLife;
+        this.players = players;
+        this.playerFactions = playerFactions;
+        this.factions = factions;
+        this.factionSizes = factionSizes;
+    }
+
+    /**
+     * 由大厅当前数据构造快照.
+     *
+     * @param lobby 大厅
+     * @param data  大厅数据
+     * @return 快照
+     */
+    @NotNull
+    public static LobbySnapshot of(@NotNull IGameLobby lobby, @NotNull LobbyData data) {
+        FactionIndex index = lobby.getFactionIndex();
+        int size = data.players.size();
+        UUID[] players = new UUID[size];
+        int[] playerFactions = new int[size];
+        Location[] factions = new Location[index.size()];
+        int[] factionSizes = new int[index.size()];
+        for (int i = 0; i < factions.length; i++) factions[i] = index.get(i).clone();
+        for (int i = 0; i < size; i++) {
+            Player player = data.players.get(i);
+            players[i] = player.getUniqueId();
+            int faction = index.indexOf(data.members.get(players[i]));
+            playerFactions[i] = faction;
+            if (faction >= 0) factionSizes[faction]++;
+        }
+        return new LobbySnapshot(lobby.id(), data.state, data.lobbyLife, data.gameLife, players, playerFactions, factions, factionSizes);
+    }
+
+    @NotNull
+    public String getId() {
+        return id;
+    }
+
+    @NotNull
+    public GameState getState() {
+        return state;
+    }
+
+    public long getLobbyLife() {
+        return lobbyLife;
+    }
+
+    public long getGameLife() {
+        return gameLife;
+    }
+
+    /**
+     * 玩家数量.
+     *
+     * @return 数量
+     */
+    public int playerCount() {
+        return players.length;
+    }
+
+    /**
+     * 获取玩家 UUID.
+     *
+     * @param index 玩家序号
+     * @return UUID
+     */
+    @NotNull
+    public UUID getPlayer(int index) {
+        return players[index];
+    }
+
+    /**
+     * 获取玩家所在阵营序号.
+     *
+     * @param index 玩家序号
+     * @return 阵营序号, 无阵营时返回 -1
+     */
+    public int getPlayerFaction(int index) {
+        return playerFactions[index];
+    }
+
+    /**
+     * 玩家 UUID 列表(只读).
+     *
+     * @return 列表
+     */
+    @NotNull
+    public List<UUID> getPlayers() {
+        return Collections.unmodifiableList(Arrays.asList(players));
+    }
+
+    /**
+     * 阵营数量.
+     *
+     * @return 数量
+     */
+    public int factionCount() {
+        return factions.length;
+    }
+
+    /**
+     * 获取阵营集会点(副本).
+     *
+     * @param faction 阵营序号
+     * @return 集会点
+     */
+    @NotNull
+    public Location getFaction(int faction) {
+        return factions[faction].clone();
+    }
+
+    /**
+     * 获取阵营人数.
+     *
+     * @param faction 阵营序号
+     * @return 人数
+     */
+    public int getFactionSize(int faction) {
+        return factionSizes[faction];
+    }
+
+    /**
+     * 查找玩家序号.
+     *
+     * @param uuid 玩家 UUID
+     * @return 序号, 不存在时返回 -1
+     */
+    public int indexOf(@Nullable UUID uuid) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].equals(uuid)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,126 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.BiFunction;
+
+/**
+ * 游戏大厅模板.
+ * 按序号在 origin + offset * index 处生成大厅实例，实例 id 为 "模板名-序号".
+ * 未重写 {@link IGameLobby#gameType()} 的实例按模板名参与匹配，以便匹配队列按需扩容.
+ */
+public final class LobbyTemplate {
+
+    private final String name;
+    private final Location origin;
+    private final BiFunction<String, Location, IGameLobby> factory;
+    private double dx = 0, dy = 0, dz = 0;
+    private int warm = 2, minInstances = 0, maxInstances = 64;
+    private long idleTimeout = 6000;
+
+    /**
+     * 创建模板.
+     *
+     * @param name    模板名
+     * @param origin  0 号实例的中心位置
+     * @param factory 实例工厂 (id, center) -&gt; 大厅
+     */
+    public LobbyTemplate(@NotNull String name, @NotNull Location origin, @NotNull BiFunction<String, Location, IGameLobby> factory) {
+        this.name = name;
+        this.origin = origin.clone();
+        this.factory = factory;
+    }
+
+    /**
+     * 相邻实例中心的偏移量.
+     *
+     * @param dx X 偏移
+     * @param dy Y 偏移
+     * @param dz Z 偏移
+     * @return 模板
+     */
+    public LobbyTemplate offset(double dx, double dy, double dz) {
+        this.dx = dx;
+        this.dy = dy;
+        this.dz = dz;
+        return this;
+    }
+
+    /**
+     * 预热池大小, 池中实例已完成范围/阵营索引/数据的初始化.
+     *
+     * @param warm 数量
+     * @return 模板
+     */
+    public LobbyTemplate warm(int warm) {
+        this.warm = warm;
+        return this;
+    }
+
+    /**
+     * 始终保留的实例数量.
+     *
+     * @param minInstances 数量
+     * @return 模板
+     */
+    public LobbyTemplate minInstances(int minInstances) {
+        this.minInstances = minInstances;
+        return this;
+    }
+
+    /**
+     * 实例数量上限(包括池中实例).
+     *
+     * @param maxInstances 数量
+     * @return 模板
+     */
+    public LobbyTemplate maxInstances(int maxInstances) {
+        this.maxInstances = maxInstances;
+        return this;
+    }
+
+    /**
+     * 实例空闲多久后回收到池中.
+     *
+     * @param idleTimeout tick
+     * @return 模板
+     */
+    public LobbyTemplate idleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    public int getWarm() {
+        return warm;
+    }
+
+    public int getMinInstances() {
+        return minInstances;
+    }
+
+    public int getMaxInstances() {
+        return maxInstances;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * 创建指定序号的实例.
+     *
+     * @param index 序号
+     * @return 大厅实例
+     */
+    @NotNull
+    public IGameLobby create(int index) {
+        Location center = origin.clone().add(dx * index, dy * index, dz * index);
+        return factory.apply(name + "-" + index, center);
+    }
+}
@@ -0,0 +1,378 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+import java.util.logging.Level;
+
+/**
+ * 游戏大厅时间轮驱动器.
+ * 所有大厅共用一个每 tick 执行的计划任务，
+ * 按 {@link IGameLobby#cycle()} 放入时间轮槽位，每 tick 只更新到期的大厅.
+ * 休眠的大厅移出时间轮，按唤醒时间放入优先队列，每 tick 只检查队首.
+ * 每 tick 的大厅处理有时间预算，超出预算的大厅按先进先出顺序推迟到下一 tick 优先处理，
+ * 单个大厅的更新不会被拆分，状态变化顺序不变.
+ */
+public final class LobbyTicker implements Runnable {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final Plugin plugin;
+    private final Entry[] wheel = new Entry[WHEEL_SIZE];
+    private final HashMap<Integer, int[]> phases = new HashMap<>();
+    private final ArrayList<TeleportQueue> teleports = new ArrayList<>();
+    private final PriorityQueue<Entry> dormant = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.wakeAt));
+    private final ArrayDeque<Entry> deferred = new ArrayDeque<>();
+    private final ArrayList<Entry> due = new ArrayList<>();
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private BukkitTask task = null;
+    private long tick = 0, tickStart = 0, budget = 5000000L;
+    private long overruns = 0, deferrals = 0;
+    private int size = 0;
+    private boolean running = false;
+
+    public LobbyTicker(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 时间轮节点.
+     */
+    public static final class Entry {
+        private final IGameLobby lobby;
+        private final int cycle;
+        private long deadline, wakeAt;
+        private Entry prev, next;
+        private boolean linked = false, cancelled = false, parked = false, deferred = false;
+
+        private Entry(IGameLobby lobby, int cycle) {
+            this.lobby = lobby;
+            this.cycle = cycle;
+        }
+
+        public IGameLobby getLobby() {
+            return lobby;
+        }
+
+        public int getCycle() {
+            return cycle;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isParked() {
+            return parked;
+        }
+    }
+
+    /**
+     * 将大厅加入时间轮.
+     * 相同周期的大厅按注册顺序轮流分配到不同的相位，避免集中在同一 tick 更新.
+     *
+     * @param lobby 大厅
+     * @return 时间轮节点
+     */
+    @NotNull
+    public Entry schedule(@NotNull IGameLobby lobby) {
+        Entry entry = new Entry(lobby, Math.max(1, lobby.cycle()));
+        int[] counter = phases.computeIfAbsent(entry.cycle, c -> new int[1]);
+        int phase = counter[0]++ % entry.cycle;
+        long first = tick + entry.cycle;
+        entry.deadline = first + Math.floorMod(phase - first, (long) entry.cycle);
+        link(entry);
+        size++;
+        if (task == null) task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+        return entry;
+    }
+
+    /**
+     * 将大厅移出时间轮.
+     *
+     * @param entry 时间轮节点
+     */
+    public void cancel(@NotNull Entry entry) {
+        if (entry.cancelled) return;
+        entry.cancelled = true;
+        if (entry.linked) unlink(entry);
+        if (entry.deferred) {
+            entry.deferred = false;
+            deferred.remove(entry);
+        }
+        if (entry.parked) {
+            entry.parked = false;
+            dormant.remove(entry);
+        }
+        if (--size <= 0) stop();
+    }
+
+    /**
+     * 使大厅休眠，直到唤醒时间或手动唤醒前不再更新.
+     *
+     * @param entry  时间轮节点
+     * @param wakeAt 唤醒时间(毫秒)
+     */
+    public void park(@NotNull Entry entry, long wakeAt) {
+        if (entry.cancelled) return;
+        if (entry.linked) unlink(entry);
+        if (entry.deferred) {
+            entry.deferred = false;
+            deferred.remove(entry);
+        }
+        if (entry.parked) dormant.remove(entry);
+        entry.parked = true;
+        entry.wakeAt = wakeAt;
+        dormant.add(entry);
+    }
+
+    /**
+     * 唤醒休眠的大厅, 从下一 tick 开始恢复周期更新.
+     *
+     * @param entry 时间轮节点
+     */
+    public void wake(@NotNull Entry entry) {
+        if (!entry.parked || entry.cancelled) return;
+        dormant.remove(entry);
+        entry.parked = false;
+        entry.deadline = tick + 1;
+        link(entry);
+    }
+
+    /**
+     * 设置每 tick 大厅处理的时间预算.
+     *
+     * @param millis 毫秒
+     */
+    public void setBudget(double millis) {
+        this.budget = (long) (millis * 1000000);
+    }
+
+    /**
+     * 每 tick 大厅处理的时间预算.
+     *
+     * @return 纳秒
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * 本 tick 是否已用完时间预算.
+     * 不在驱动器执行期间(例如直接调用 {@link IGameLobby#update()})时总是返回 false.
+     *
+     * @return 是否超出预算
+     */
+    public boolean isOverBudget() {
+        return running && System.nanoTime() - tickStart > budget;
+    }
+
+    /**
+     * 提交非关键任务(人员重新扫描/广播等).
+     * 在大厅更新之后执行，预算用完时推迟到之后的 tick，每 tick 至少执行一个.
+     *
+     * @param runnable 任务
+     */
+    public void defer(@NotNull Runnable runnable) {
+        tasks.add(runnable);
+        if (task == null) task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+    }
+
+    /**
+     * 超出时间预算的 tick 数.
+     *
+     * @return 次数
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * 被推迟到下一 tick 的大厅更新次数.
+     *
+     * @return 次数
+     */
+    public long getDeferrals() {
+        return deferrals;
+    }
+
+    /**
+     * 休眠的大厅数量.
+     *
+     * @return 数量
+     */
+    public int dormantCount() {
+        return dormant.size();
+    }
+
+    /**
+     * 提交分批传送队列，之后每 tick 分发一批直到完成.
+     *
+     * @param queue 传送队列
+     */
+    public void submit(@NotNull TeleportQueue queue) {
+        teleports.add(queue);
+        if (task == null) task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+    }
+
+    /**
+     * 停止驱动任务并清空时间轮.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        teleports.forEach(TeleportQueue::cancel);
+        teleports.clear();
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            for (Entry entry = wheel[i]; entry != null; entry = entry.next) {
+                entry.linked = false;
+                entry.cancelled = true;
+            }
+            wheel[i] = null;
+        }
+        due.forEach(entry -> entry.cancelled = true);
+        dormant.forEach(entry -> {
+            entry.parked = false;
+            entry.cancelled = true;
+        });
+        dormant.clear();
+        deferred.forEach(entry -> {
+            entry.deferred = false;
+            entry.cancelled = true;
+        });
+        deferred.clear();
+        tasks.clear();
+        size = 0;
+    }
+
+    /**
+     * 当前 tick 计数.
+     *
+     * @return tick
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    public void run() {
+        running = true;
+        try {
+            process();
+        } finally {
+            running = false;
+        }
+    }
+
+    private void process() {
+        tick++;
+        tickStart = System.nanoTime();
+        if (!dormant.isEmpty() && dormant.peek().wakeAt <= System.currentTimeMillis()) {
+            long now = System.currentTimeMillis();
+            while (!dormant.isEmpty() && dormant.peek().wakeAt <= now) wake(dormant.peek());
+        }
+        for (int i = 0; i < teleports.size(); ) {
+            if (dispatch(teleports.get(i))) teleports.remove(i);
+            else i++;
+        }
+        boolean overrun = false;
+        int processed = 0;
+        for (int pending = deferred.size(); pending > 0; pending--) {
+            if (processed > 0 && isOverBudget()) {
+                overrun = true;
+                break;
+            }
+            Entry entry = deferred.poll();
+            entry.deferred = false;
+            if (entry.cancelled) continue;
+            update(entry);
+            processed++;
+            do entry.deadline += entry.cycle; while (entry.deadline <= tick);
+            if (!entry.cancelled && !entry.parked) link(entry);
+        }
+        // 先把槽位整体摘下并断开链接，更新中移除/休眠同槽位的其他大厅只会修改标记，不会破坏遍历
+        int slot = (int) (tick & WHEEL_MASK);
+        for (Entry entry = wheel[slot]; entry != null; entry = entry.next) due.add(entry);
+        wheel[slot] = null;
+        for (Entry entry : due) {
+            entry.linked = false;
+            entry.prev = entry.next = null;
+        }
+        for (int i = 0; i < due.size(); i++) {
+            Entry entry = due.get(i);
+            if (entry.cancelled || entry.parked || entry.linked) continue;
+            if (entry.deadline == tick) {
+                if (processed > 0 && isOverBudget()) {
+                    entry.deferred = true;
+                    deferred.add(entry);
+                    deferrals++;
+                    overrun = true;
+                    continue;
+                }
+                update(entry);
+                processed++;
+                entry.deadline += entry.cycle;
+            }
+            if (!entry.cancelled && !entry.parked && !entry.linked) link(entry);
+        }
+        due.clear();
+        for (boolean first = true; !tasks.isEmpty() && (first || !isOverBudget()); first = false) {
+            Runnable runnable = tasks.poll();
+            try {
+                runnable.run();
+            } catch (Throwable e) {
+                plugin.getLogger().log(Level.WARNING, "Deferred lobby task failed !", e);
+            }
+        }
+        if (overrun || !tasks.isEmpty()) overruns++;
+    }
+
+    private void update(Entry entry) {
+        try {
+            entry.lobby.update();
+        } catch (Throwable e) {
+            plugin.getLogger().log(Level.WARNING, "Lobby " + entry.lobby.id() + " update failed !", e);
+        }
+    }
+
+    private boolean dispatch(TeleportQueue queue) {
+        try {
+            return queue.tick();
+        } catch (Throwable e) {
+            plugin.getLogger().log(Level.WARNING, "Lobby " + queue.getLobby().id() + " teleport dispatch failed !", e);
+            try {
+                queue.abort();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.WARNING, "Lobby " + queue.getLobby().id() + " teleport abort failed !", t);
+            }
+            return true;
+        }
+    }
+
+    private void link(Entry entry) {
+        int slot = (int) (entry.deadline & WHEEL_MASK);
+        Entry head = wheel[slot];
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) head.prev = entry;
+        wheel[slot] = entry;
+        entry.linked = true;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) entry.prev.next = entry.next;
+        else wheel[(int) (entry.deadline & WHEEL_MASK)] = entry.next;
+        if (entry.next != null) entry.next.prev = entry.prev;
+        entry.prev = entry.next = null;
+        entry.linked = false;
+    }
+}
@@ -0,0 +1,125 @@
+package org.soraworld.lobby.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 大厅更新耗时统计.
+ * 每个阶段一个固定大小的对数直方图(每个 2 的幂分为 4 档)，
+ * 只由主线程写入，可在任意线程无锁读取.
+ */
+public final class LobbyTimings {
+
+    /**
+     * 更新阶段.
+     */
+    public enum Phase {
+        OPEN("shouldOpen"),
+        CHECK("checkLobby"),
+        START("shouldStart"),
+        UPDATE("onUpdate"),
+        FINISH("shouldFinish"),
+        TOTAL("total");
+
+        private final String display;
+
+        Phase(String display) {
+            this.display = display;
+        }
+
+        public String display() {
+            return display;
+        }
+    }
+
+    private static final int SUB_BITS = 2;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXP = 40;
+    private static final int BUCKETS = (MAX_EXP + 1) * SUB_COUNT;
+    private static final Phase[] PHASES = Phase.values();
+
+    private final AtomicLongArray buckets = new AtomicLongArray(PHASES.length * BUCKETS);
+    private final AtomicLongArray maxes = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray counts = new AtomicLongArray(PHASES.length);
+
+    /**
+     * 记录一次耗时.
+     *
+     * @param phase 阶段
+     * @param nanos 耗时(纳秒)
+     */
+    public void record(@NotNull Phase phase, long nanos) {
+        int p = phase.ordinal();
+        int index = p * BUCKETS + bucket(nanos);
+        buckets.lazySet(index, buckets.get(index) + 1);
+        counts.lazySet(p, counts.get(p) + 1);
+        if (nanos > maxes.get(p)) maxes.lazySet(p, nanos);
+    }
+
+    /**
+     * 样本数量.
+     *
+     * @param phase 阶段
+     * @return 数量
+     */
+    public long count(@NotNull Phase phase) {
+        return counts.get(phase.ordinal());
+    }
+
+    /**
+     * 最大耗时.
+     *
+     * @param phase 阶段
+     * @return 纳秒
+     */
+    public long max(@NotNull Phase phase) {
+        return maxes.get(phase.ordinal());
+    }
+
+    /**
+     * 分位耗时(所在档位的上界).
+     *
+     * @param phase    阶段
+     * @param quantile 分位 (0, 1]
+     * @return 纳秒
+     */
+    public long percentile(@NotNull Phase phase, double quantile) {
+        int p = phase.ordinal();
+        long total = counts.get(p);
+        if (total <= 0) return 0;
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(p * BUCKETS + i);
+            if (seen >= rank) return Math.min(upper(i), maxes.get(p));
+        }
+        return maxes.get(p);
+    }
+
+    /**
+     * 清空统计.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) buckets.set(i, 0);
+        for (int i = 0; i < PHASES.length; i++) {
+            maxes.set(i, 0);
+            counts.set(i, 0);
+        }
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_COUNT) return (int) Math.max(0, nanos);
+        int exp = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exp > MAX_EXP) return BUCKETS - 1;
+        int sub = (int) (nanos >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    private static long upper(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int exp = bucket / SUB_COUNT + SUB_BITS - 1;
+        int sub = bucket % SUB_COUNT;
+        return ((long) (SUB_COUNT + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+}
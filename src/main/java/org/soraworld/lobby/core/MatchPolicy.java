@@ -0,0 +1,15 @@
+package org.soraworld.lobby.core;
+
+/**
+ * 匹配队列分配策略枚举.
+ */
+public enum MatchPolicy {
+    /**
+     * 优先填满剩余名额最少的大厅.
+     */
+    FILL,
+    /**
+     * 优先分配到剩余名额最多的大厅.
+     */
+    BALANCE
+}
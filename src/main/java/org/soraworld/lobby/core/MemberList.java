@@ -0,0 +1,142 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+/**
+ * 玩家列表.
+ * 玩家保存在数组中，并按 UUID 记录所在槽位；
+ * 移除时用末尾元素填补空位(不保持顺序)，因此查找、包含与移除都是常数时间.
+ * 同一 UUID 只保存一次.
+ */
+public final class MemberList extends AbstractList<Player> implements RandomAccess {
+
+    private Player[] players;
+    private int size = 0;
+    private final HashMap<UUID, Integer> slots;
+
+    public MemberList() {
+        this(8);
+    }
+
+    public MemberList(int capacity) {
+        players = new Player[Math.max(capacity, 1)];
+        slots = new HashMap<>(Math.max(capacity, 1) * 2);
+    }
+
+    @Override
+    public Player get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return players[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(@NotNull Player player) {
+        if (slots.putIfAbsent(player.getUniqueId(), size) != null) return false;
+        if (size == players.length) players = Arrays.copyOf(players, size * 2);
+        players[size++] = player;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * 替换位置上的玩家.
+     * 玩家已在列表的其他位置时交换两个位置(保持 UUID 唯一)，
+     * 因此 {@link java.util.Collections#swap}、{@link java.util.Collections#shuffle} 与 {@link java.util.List#sort} 可以正常使用.
+     */
+    @Override
+    public Player set(int index, @NotNull Player player) {
+        Player old = get(index);
+        UUID uuid = player.getUniqueId();
+        if (!old.getUniqueId().equals(uuid)) {
+            Integer other = slots.get(uuid);
+            slots.remove(old.getUniqueId());
+            if (other != null) {
+                players[other] = old;
+                slots.put(old.getUniqueId(), other);
+            }
+            slots.put(uuid, index);
+        }
+        players[index] = player;
+        return old;
+    }
+
+    @Override
+    public Player remove(int index) {
+        Player old = get(index);
+        slots.remove(old.getUniqueId());
+        int last = --size;
+        if (index != last) {
+            players[index] = players[last];
+            slots.put(players[index].getUniqueId(), index);
+        }
+        players[last] = null;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) return false;
+        remove(index);
+        return true;
+    }
+
+    /**
+     * 按 UUID 移除玩家.
+     *
+     * @param uuid 玩家 UUID
+     * @return 被移除的玩家, 不存在时返回 null
+     */
+    public Player remove(@NotNull UUID uuid) {
+        Integer index = slots.get(uuid);
+        return index != null ? remove((int) index) : null;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Player)) return -1;
+        Integer index = slots.get(((Player) o).getUniqueId());
+        return index != null ? index : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * 是否包含该 UUID 的玩家.
+     *
+     * @param uuid 玩家 UUID
+     * @return 是否包含
+     */
+    public boolean contains(@NotNull UUID uuid) {
+        return slots.containsKey(uuid);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(players, 0, size, null);
+        size = 0;
+        slots.clear();
+        modCount++;
+    }
+}
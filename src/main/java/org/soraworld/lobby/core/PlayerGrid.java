@@ -0,0 +1,124 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 单个世界内玩家位置的区块网格索引.
+ * 每 tick 最多重建一次，大厅只查询与其范围重叠的网格.
+ */
+public final class PlayerGrid {
+
+    private static final int SHIFT = 4;
+
+    private long stamp = Long.MIN_VALUE;
+    private int generation = 0;
+    private int count = 0, cells = 0;
+    private Player[] players = new Player[16];
+    private int[] nexts = new int[16];
+    private long[] keys = new long[32];
+    private int[] heads = new int[32];
+    private int[] gens = new int[32];
+
+    /**
+     * 网格是否已在指定 tick 重建.
+     *
+     * @param tick tick
+     * @return 是否最新
+     */
+    public boolean isFresh(long tick) {
+        return stamp == tick;
+    }
+
+    /**
+     * 使用世界内的玩家重建网格.
+     *
+     * @param online 玩家集合
+     * @param tick   当前 tick
+     */
+    public void rebuild(@NotNull Collection<? extends Player> online, long tick) {
+        stamp = tick;
+        int size = online.size();
+        if (players.length < size) {
+            int length = Integer.highestOneBit(size) << 1;
+            players = new Player[length];
+            nexts = new int[length];
+        } else if (count > size) {
+            Arrays.fill(players, size, count, null);
+        }
+        if (keys.length < size << 1) {
+            int length = Integer.highestOneBit(size) << 2;
+            keys = new long[length];
+            heads = new int[length];
+            gens = new int[length];
+        }
+        if (++generation == 0) {
+            Arrays.fill(gens, 0);
+            generation = 1;
+        }
+        count = 0;
+        cells = 0;
+        for (Player player : online) {
+            Location loc = player.getLocation();
+            int slot = slot(loc.getBlockX() >> SHIFT, loc.getBlockZ() >> SHIFT, true);
+            players[count] = player;
+            nexts[count] = heads[slot];
+            heads[slot] = count++;
+        }
+    }
+
+    /**
+     * 遍历与矩形范围 (X/Z) 重叠的网格内的玩家.
+     * 结果只按网格粗略过滤，调用方仍需精确判断.
+     *
+     * @param minX     最小 X
+     * @param minZ     最小 Z
+     * @param maxX     最大 X
+     * @param maxZ     最大 Z
+     * @param consumer 回调
+     */
+    public void query(double minX, double minZ, double maxX, double maxZ, @NotNull Consumer<Player> consumer) {
+        int cMinX = floor(minX) >> SHIFT, cMaxX = floor(maxX) >> SHIFT;
+        int cMinZ = floor(minZ) >> SHIFT, cMaxZ = floor(maxZ) >> SHIFT;
+        long area = (long) (cMaxX - cMinX + 1) * (cMaxZ - cMinZ + 1);
+        if (area >= cells) {
+            for (int i = 0; i < count; i++) consumer.accept(players[i]);
+            return;
+        }
+        for (int cx = cMinX; cx <= cMaxX; cx++) {
+            for (int cz = cMinZ; cz <= cMaxZ; cz++) {
+                int slot = slot(cx, cz, false);
+                if (slot >= 0) {
+                    for (int i = heads[slot]; i >= 0; i = nexts[i]) consumer.accept(players[i]);
+                }
+            }
+        }
+    }
+
+    private int slot(int cx, int cz, boolean create) {
+        long key = ((long) cx << 32) | (cz & 0xffffffffL);
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (gens[slot] == generation) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        if (!create) return -1;
+        gens[slot] = generation;
+        keys[slot] = key;
+        heads[slot] = -1;
+        cells++;
+        return slot;
+    }
+
+    private static int floor(double value) {
+        int i = (int) value;
+        return value < i ? i - 1 : i;
+    }
+}
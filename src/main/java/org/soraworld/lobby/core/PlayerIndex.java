@@ -0,0 +1,164 @@
+package org.soraworld.lobby.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * 以玩家 UUID 为键的开放寻址哈希表.
+ * 直接以 UUID 的两个 long 作为键存储，查询只需一次探测序列，不创建任何对象.
+ *
+ * @param <V> 值类型
+ */
+public final class PlayerIndex<V> {
+
+    private long[] most = new long[16];
+    private long[] least = new long[16];
+    private Object[] values = new Object[16];
+    private int size = 0;
+
+    /**
+     * 获取值.
+     *
+     * @param uuid 玩家 UUID
+     * @return 值, 不存在时返回 null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(@NotNull UUID uuid) {
+        long msb = uuid.getMostSignificantBits(), lsb = uuid.getLeastSignificantBits();
+        int mask = values.length - 1;
+        for (int i = index(msb, lsb, mask); values[i] != null; i = (i + 1) & mask) {
+            if (most[i] == msb && least[i] == lsb) return (V) values[i];
+        }
+        return null;
+    }
+
+    /**
+     * 设置值.
+     *
+     * @param uuid  玩家 UUID
+     * @param value 值
+     * @return 原值
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(@NotNull UUID uuid, @NotNull V value) {
+        long msb = uuid.getMostSignificantBits(), lsb = uuid.getLeastSignificantBits();
+        int mask = values.length - 1;
+        int i = index(msb, lsb, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (most[i] == msb && least[i] == lsb) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+        most[i] = msb;
+        least[i] = lsb;
+        values[i] = value;
+        if (++size << 1 > values.length) resize(values.length << 1);
+        return null;
+    }
+
+    /**
+     * 移除值.
+     *
+     * @param uuid 玩家 UUID
+     * @return 原值
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(@NotNull UUID uuid) {
+        long msb = uuid.getMostSignificantBits(), lsb = uuid.getLeastSignificantBits();
+        int mask = values.length - 1;
+        for (int i = index(msb, lsb, mask); values[i] != null; i = (i + 1) & mask) {
+            if (most[i] == msb && least[i] == lsb) {
+                V old = (V) values[i];
+                delete(i);
+                return old;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 移除所有等于指定值的条目.
+     *
+     * @param value 值
+     * @return 移除数量
+     */
+    public int removeValue(@NotNull V value) {
+        int removed = 0;
+        for (int i = 0; i < values.length; ) {
+            if (values[i] == value) {
+                delete(i);
+                removed++;
+            } else i++;
+        }
+        return removed;
+    }
+
+    /**
+     * 遍历所有条目.
+     *
+     * @param action 回调
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull BiConsumer<UUID, V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) action.accept(new UUID(most[i], least[i]), (V) values[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void delete(int hole) {
+        int mask = values.length - 1;
+        values[hole] = null;
+        size--;
+        for (int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = index(most[i], least[i], mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                most[hole] = most[i];
+                least[hole] = least[i];
+                values[hole] = values[i];
+                values[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    private void resize(int length) {
+        long[] oldMost = most, oldLeast = least;
+        Object[] oldValues = values;
+        most = new long[length];
+        least = new long[length];
+        values = new Object[length];
+        int mask = length - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                int i = index(oldMost[j], oldLeast[j], mask);
+                while (values[i] != null) i = (i + 1) & mask;
+                most[i] = oldMost[j];
+                least[i] = oldLeast[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int index(long msb, long lsb, int mask) {
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
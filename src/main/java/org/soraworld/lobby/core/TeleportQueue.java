@@ -0,0 +1,106 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.soraworld.lobby.GameLobby;
+
+import java.util.Arrays;
+
+/**
+ * 游戏开始时的分批传送队列.
+ * 由 {@link LobbyTicker} 每 tick 分发一批，全部完成后回调 {@link IGameLobby#onTeleported()}.
+ */
+public final class TeleportQueue {
+
+    private final IGameLobby lobby;
+    private final int batch;
+    private Player[] players = new Player[16];
+    private Location[] targets = new Location[16];
+    private int size = 0, cursor = 0;
+    private boolean cancelled = false;
+
+    public TeleportQueue(@NotNull IGameLobby lobby, int batch) {
+        this.lobby = lobby;
+        this.batch = batch;
+    }
+
+    /**
+     * 加入传送.
+     *
+     * @param player 玩家
+     * @param target 原始传送位置
+     */
+    public void add(@NotNull Player player, @NotNull Location target) {
+        if (size == players.length) {
+            players = Arrays.copyOf(players, size << 1);
+            targets = Arrays.copyOf(targets, size << 1);
+        }
+        players[size] = player;
+        targets[size++] = target;
+    }
+
+    @NotNull
+    public IGameLobby getLobby() {
+        return lobby;
+    }
+
+    /**
+     * 剩余待传送数量.
+     *
+     * @return 数量
+     */
+    public int remaining() {
+        return cancelled ? 0 : size - cursor;
+    }
+
+    /**
+     * 取消剩余传送，不会触发完成回调.
+     */
+    public void cancel() {
+        cancelled = true;
+        Arrays.fill(players, null);
+        Arrays.fill(targets, null);
+    }
+
+    /**
+     * 分发失败时放弃剩余传送，并照常结束游戏开始阶段(清除大厅的传送队列并回调完成).
+     */
+    public void abort() {
+        cancel();
+        complete();
+    }
+
+    /**
+     * 分发一批传送.
+     *
+     * @return 是否已结束
+     */
+    public boolean tick() {
+        if (cancelled) return true;
+        int end = batch > 0 ? Math.min(size, cursor + batch) : size;
+        for (; cursor < end; cursor++) {
+            if (cancelled) return true;
+            Player player = players[cursor];
+            Location target = targets[cursor];
+            players[cursor] = null;
+            targets[cursor] = null;
+            if (player.isOnline()) {
+                Location loc = lobby.onPlayerStart(player, target);
+                if (loc != null) player.teleport(loc);
+            }
+        }
+        if (cursor >= size) {
+            complete();
+            return true;
+        }
+        return false;
+    }
+
+    private void complete() {
+        LobbyData data = GameLobby.getLobbyManager().getLobbyData(lobby);
+        if (data.teleport != this) return;
+        data.teleport = null;
+        lobby.onTeleported();
+    }
+}
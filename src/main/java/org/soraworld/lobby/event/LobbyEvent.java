@@ -3,6 +3,7 @@ package org.soraworld.lobby.event;
 import org.bukkit.event.Event;
 import org.jetbrains.annotations.NotNull;
 import org.soraworld.lobby.core.IGameLobby;
+import org.soraworld.lobby.core.LobbySnapshot;
 
 public abstract class LobbyEvent extends Event {
 
@@ -17,4 +18,14 @@ public abstract class LobbyEvent extends Event {
     public IGameLobby getLobby() {
         return lobby;
     }
+
+    /**
+     * 获取大厅当前的不可变快照.
+     *
+     * @return 快照
+     */
+    @NotNull
+    public LobbySnapshot getSnapshot() {
+        return lobby.getSnapshot();
+    }
 }
@@ -18,4 +18,13 @@ public class LobbyOpenEvent extends LobbyEvent {
     public static HandlerList getHandlerList() {
         return handlerList;
     }
+
+    /**
+     * 是否有监听器.
+     *
+     * @return 是否有监听器
+     */
+    public static boolean hasListeners() {
+        return handlerList.getRegisteredListeners().length > 0;
+    }
 }
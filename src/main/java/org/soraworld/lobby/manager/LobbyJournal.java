@@ -0,0 +1,360 @@
+package org.soraworld.lobby.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.soraworld.lobby.core.GameState;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 大厅状态日志.
+ * 状态变化与人员变化追加写入日志文件，定期压缩为快照，启动时回放.
+ * 主线程只负责入队，所有文件读写都在单独的写线程完成，每次刷新批量写入.
+ * 日志与快照文件以代号开头: 快照的代号为其覆盖的日志代号，压缩后新日志的代号加一，
+ * 回放时跳过代号不大于快照的日志(快照替换后、删除日志前崩溃留下的旧日志).
+ */
+public final class LobbyJournal {
+
+    private static final byte STATE = 1, JOIN = 2, LEAVE = 3, MEMBER = 4, GENERATION = 5;
+    private static final long FLUSH_DELAY = 500;
+
+    private final Path journalFile, snapshotFile, snapshotTemp;
+    private final Logger logger;
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private ScheduledExecutorService writer = null;
+    private DataOutputStream output = null;
+    private int appended = 0;
+    private long generation = 0;
+
+    public LobbyJournal(@NotNull Path path, @NotNull Logger logger) {
+        this.journalFile = path.resolve("lobby.journal");
+        this.snapshotFile = path.resolve("lobby.snapshot");
+        this.snapshotTemp = path.resolve("lobby.snapshot.tmp");
+        this.logger = logger;
+    }
+
+    /**
+     * 回放后的大厅状态.
+     */
+    public static final class Restored {
+        public GameState state = GameState.CLOSE;
+        public long lobbyLife = 0, gameLife = 0;
+        public final Set<UUID> joined = new HashSet<>();
+        public final Map<UUID, Integer> members = new HashMap<>();
+    }
+
+    private static final class Record {
+        private final byte type;
+        private final String id;
+        private final UUID uuid;
+        private final GameState state;
+        private final long lobbyLife, gameLife;
+        private final int faction;
+
+        private Record(byte type, String id, UUID uuid, GameState state, long lobbyLife, long gameLife, int faction) {
+            this.type = type;
+            this.id = id;
+            this.uuid = uuid;
+            this.state = state;
+            this.lobbyLife = lobbyLife;
+            this.gameLife = gameLife;
+            this.faction = faction;
+        }
+    }
+
+    private static final class Snapshot {
+        private final List<Record> records;
+
+        private Snapshot(List<Record> records) {
+            this.records = records;
+        }
+    }
+
+    /**
+     * 读取快照与日志并回放, 之后开始接受写入.
+     *
+     * @return 大厅 id -&gt; 回放状态
+     */
+    @NotNull
+    public Map<String, Restored> load() {
+        HashMap<String, Restored> restored = new HashMap<>();
+        HashMap<UUID, String> players = new HashMap<>();
+        long snapshot = replay(snapshotFile, restored, players);
+        long journal = -1;
+        if (Files.isRegularFile(journalFile)) {
+            if (snapshot >= 0 && readGeneration(journalFile) <= snapshot) {
+                logger.info("Lobby journal is older than the snapshot, skipped.");
+                try {
+                    Files.delete(journalFile);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Stale lobby journal delete failed !", e);
+                }
+            } else journal = replay(journalFile, restored, players);
+        }
+        generation = journal >= 0 ? journal : snapshot + 1;
+        if (writer == null) {
+            writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "GameLobby-Journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return restored;
+    }
+
+    public void state(@NotNull String id, @NotNull GameState state, long lobbyLife, long gameLife) {
+        offer(new Record(STATE, id, null, state, lobbyLife, gameLife, -1));
+    }
+
+    public void join(@NotNull String id, @NotNull UUID uuid) {
+        offer(new Record(JOIN, id, uuid, null, 0, 0, -1));
+    }
+
+    public void leave(@NotNull UUID uuid) {
+        offer(new Record(LEAVE, "", uuid, null, 0, 0, -1));
+    }
+
+    public void member(@NotNull String id, @NotNull UUID uuid, int faction) {
+        offer(new Record(MEMBER, id, uuid, null, 0, 0, faction));
+    }
+
+    /**
+     * 是否需要压缩.
+     *
+     * @return 日志条数是否过多
+     */
+    public boolean shouldCompact() {
+        return appended >= 4096;
+    }
+
+    /**
+     * 以当前完整状态压缩日志.
+     * 快照由调用方在主线程构造，写入在写线程完成.
+     *
+     * @param builder 快照构造器, 通过 {@link Collector} 写入快照内容
+     */
+    public void compact(@NotNull Consumer<Collector> builder) {
+        ArrayList<Record> records = new ArrayList<>();
+        builder.accept(new Collector(records));
+        appended = 0;
+        offer(new Snapshot(records));
+    }
+
+    /**
+     * 快照内容收集器.
+     */
+    public static final class Collector {
+        private final List<Record> records;
+
+        private Collector(List<Record> records) {
+            this.records = records;
+        }
+
+        public void state(@NotNull String id, @NotNull GameState state, long lobbyLife, long gameLife) {
+            records.add(new Record(STATE, id, null, state, lobbyLife, gameLife, -1));
+        }
+
+        public void join(@NotNull String id, @NotNull UUID uuid) {
+            records.add(new Record(JOIN, id, uuid, null, 0, 0, -1));
+        }
+
+        public void member(@NotNull String id, @NotNull UUID uuid, int faction) {
+            records.add(new Record(MEMBER, id, uuid, null, 0, 0, faction));
+        }
+    }
+
+    /**
+     * 写入剩余内容并关闭写线程.
+     * 只在插件关闭时调用，最多等待 5 秒.
+     */
+    public void close() {
+        if (writer == null) return;
+        writer.execute(() -> {
+            drain();
+            closeOutput();
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        scheduled.set(false);
+    }
+
+    private void offer(Object record) {
+        if (writer == null) return;
+        queue.offer(record);
+        if (record instanceof Record) appended++;
+        if (scheduled.compareAndSet(false, true)) {
+            writer.schedule(this::drain, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain() {
+        scheduled.set(false);
+        try {
+            Object next;
+            while ((next = queue.poll()) != null) {
+                if (next instanceof Snapshot) writeSnapshot((Snapshot) next);
+                else {
+                    if (output == null) {
+                        Files.createDirectories(journalFile.getParent());
+                        boolean fresh = !Files.isRegularFile(journalFile) || Files.size(journalFile) == 0;
+                        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile.toFile(), true)));
+                        if (fresh) writeGeneration(output, generation);
+                    }
+                    write(output, (Record) next);
+                }
+            }
+            if (output != null) output.flush();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Lobby journal write failed !", e);
+            closeOutput();
+        }
+    }
+
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        Files.createDirectories(snapshotFile.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(snapshotTemp)))) {
+            writeGeneration(out, generation);
+            for (Record record : snapshot.records) write(out, record);
+        }
+        Files.move(snapshotTemp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // 快照已覆盖当前代号的日志, 即使下面删除失败, 回放时也会跳过旧日志
+        closeOutput();
+        generation++;
+        Files.deleteIfExists(journalFile);
+    }
+
+    private static void writeGeneration(DataOutputStream out, long generation) throws IOException {
+        out.writeByte(GENERATION);
+        out.writeUTF("");
+        out.writeLong(generation);
+    }
+
+    /**
+     * 读取文件开头的代号.
+     *
+     * @return 代号, 没有代号(旧版本文件)时返回 -1
+     */
+    private long readGeneration(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readByte() != GENERATION) return -1;
+            in.readUTF();
+            return in.readLong();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void closeOutput() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ignored) {
+            }
+            output = null;
+        }
+    }
+
+    private static void write(DataOutputStream out, Record record) throws IOException {
+        out.writeByte(record.type);
+        out.writeUTF(record.id);
+        switch (record.type) {
+            case STATE:
+                out.writeByte(record.state.ordinal());
+                out.writeLong(record.lobbyLife);
+                out.writeLong(record.gameLife);
+                break;
+            case MEMBER:
+                out.writeShort(record.faction);
+                write(out, record.uuid);
+                break;
+            case JOIN:
+            case LEAVE:
+                write(out, record.uuid);
+                break;
+        }
+    }
+
+    private static void write(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * 回放文件.
+     *
+     * @return 文件代号, 文件不存在或没有代号时返回 -1
+     */
+    private long replay(Path file, Map<String, Restored> restored, Map<UUID, String> players) {
+        long generation = -1;
+        if (!Files.isRegularFile(file)) return generation;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            GameState[] states = GameState.values();
+            while (true) {
+                int type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                String id = in.readUTF();
+                switch (type) {
+                    case GENERATION:
+                        generation = in.readLong();
+                        break;
+                    case STATE: {
+                        Restored lobby = restored.computeIfAbsent(id, k -> new Restored());
+                        lobby.state = states[in.readByte()];
+                        lobby.lobbyLife = in.readLong();
+                        lobby.gameLife = in.readLong();
+                        if (lobby.state == GameState.OPEN || lobby.state == GameState.CLOSE) lobby.members.clear();
+                        break;
+                    }
+                    case JOIN: {
+                        UUID uuid = new UUID(in.readLong(), in.readLong());
+                        String old = players.put(uuid, id);
+                        if (old != null && restored.containsKey(old)) restored.get(old).joined.remove(uuid);
+                        restored.computeIfAbsent(id, k -> new Restored()).joined.add(uuid);
+                        break;
+                    }
+                    case LEAVE: {
+                        UUID uuid = new UUID(in.readLong(), in.readLong());
+                        String old = players.remove(uuid);
+                        if (old != null && restored.containsKey(old)) {
+                            restored.get(old).joined.remove(uuid);
+                            restored.get(old).members.remove(uuid);
+                        }
+                        break;
+                    }
+                    case MEMBER: {
+                        int faction = in.readShort();
+                        UUID uuid = new UUID(in.readLong(), in.readLong());
+                        restored.computeIfAbsent(id, k -> new Restored()).members.put(uuid, faction);
+                        break;
+                    }
+                    default:
+                        throw new IOException("Unknown journal record type " + type);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Lobby journal " + file.getFileName() + " is truncated or corrupt, replay stopped.", e);
+        }
+        return generation;
+    }
+}
@@ -0,0 +1,265 @@
+package org.soraworld.lobby.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 预编译的语言模板.
+ * 语言文件在加载时解析为 文本片段 + 参数槽 的模板，按整数键 id 存放在每种语言的模板表中，
+ * 格式化时复用线程内的 StringBuilder，不再逐次解析格式串.
+ * 优先读取数据目录 lang/ 下的文件，修改后自动重新加载(在异步线程检查与解析，回到主线程替换模板表)；
+ * 不存在时读取插件内置文件.
+ */
+public final class LobbyLang {
+
+    private static final char STRING = 's', NUMBER = 'd';
+
+    private static final class Template {
+        private final String raw;
+        private final String[] literals;
+        private final char[] slots;
+
+        private Template(String raw, String[] literals, char[] slots) {
+            this.raw = raw;
+            this.literals = literals;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Table {
+        private final Template[] templates;
+        private final Path file;
+        private final long modified;
+
+        private Table(Template[] templates, Path file, long modified) {
+            this.templates = templates;
+            this.file = file;
+            this.modified = modified;
+        }
+    }
+
+    private final Path directory;
+    private final String assets;
+    private final Logger logger;
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Table> tables = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> builder = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    public LobbyLang(@NotNull Path directory, @NotNull String assets, @NotNull Logger logger) {
+        this.directory = directory;
+        this.assets = assets;
+        this.logger = logger;
+    }
+
+    /**
+     * 获取键的整数 id, 不存在时分配新的 id.
+     *
+     * @param key 键
+     * @return id
+     */
+    public int id(@NotNull String key) {
+        Integer id = ids.get(key);
+        if (id != null) return id;
+        synchronized (ids) {
+            return ids.computeIfAbsent(key, k -> ids.size());
+        }
+    }
+
+    /**
+     * 重新加载语言的模板表.
+     *
+     * @param lang 语言
+     */
+    public void reload(@NotNull String lang) {
+        tables.put(lang, load(lang));
+    }
+
+    private Table load(String lang) {
+        Path file = directory.resolve(lang + ".lang");
+        HashMap<String, String> entries = new HashMap<>();
+        long modified = -1;
+        try {
+            if (Files.isRegularFile(file)) {
+                modified = Files.getLastModifiedTime(file).toMillis();
+                try (InputStream in = Files.newInputStream(file)) {
+                    parse(in, entries);
+                }
+            } else {
+                try (InputStream in = LobbyLang.class.getResourceAsStream(assets + lang + ".lang")) {
+                    if (in != null) parse(in, entries);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Lang file " + lang + " load failed !", e);
+        }
+        entries.keySet().forEach(this::id);
+        Template[] templates = new Template[ids.size()];
+        entries.forEach((key, value) -> templates[ids.get(key)] = compile(value));
+        return new Table(templates, file, modified);
+    }
+
+    /**
+     * 检查已加载的语言文件是否被修改, 并解析修改后的文件.
+     * 可以在异步线程调用，新的模板表通过 sync 交给主线程替换.
+     *
+     * @param sync 在主线程执行替换任务
+     */
+    public void checkModified(@NotNull Consumer<Runnable> sync) {
+        HashMap<String, Table> changed = new HashMap<>();
+        for (Map.Entry<String, Table> entry : tables.entrySet()) {
+            Table table = entry.getValue();
+            try {
+                long modified = Files.isRegularFile(table.file) ? Files.getLastModifiedTime(table.file).toMillis() : -1;
+                if (modified != table.modified) changed.put(entry.getKey(), load(entry.getKey()));
+            } catch (IOException ignored) {
+            }
+        }
+        if (!changed.isEmpty()) sync.accept(() -> tables.putAll(changed));
+    }
+
+    /**
+     * 格式化消息.
+     *
+     * @param lang 语言
+     * @param key  键
+     * @param args 参数
+     * @return 消息, 语言或键不存在时返回 null
+     */
+    @Nullable
+    public String format(@NotNull String lang, @NotNull String key, Object... args) {
+        Table table = table(lang);
+        Integer id = ids.get(key);
+        return id != null ? format(table, id, args) : null;
+    }
+
+    /**
+     * 按键 id 格式化消息.
+     *
+     * @param lang 语言
+     * @param id   键 id
+     * @param args 参数
+     * @return 消息, 语言或键不存在时返回 null
+     */
+    @Nullable
+    public String format(@NotNull String lang, int id, Object... args) {
+        return format(table(lang), id, args);
+    }
+
+    private Table table(String lang) {
+        Table table = tables.get(lang);
+        if (table == null) {
+            reload(lang);
+            table = tables.get(lang);
+        }
+        return table;
+    }
+
+    private String format(Table table, int id, Object[] args) {
+        if (id < 0 || id >= table.templates.length || table.templates[id] == null) return null;
+        Template template = table.templates[id];
+        if (template.slots == null) {
+            if (template.literals != null) return template.literals[0];
+            try {
+                return String.format(template.raw, args);
+            } catch (IllegalFormatException e) {
+                return template.raw;
+            }
+        }
+        if (args == null || args.length < template.slots.length) return template.raw;
+        StringBuilder sb = builder.get();
+        sb.setLength(0);
+        for (int i = 0; i < template.slots.length; i++) {
+            sb.append(template.literals[i]);
+            Object arg = args[i];
+            if (template.slots[i] == NUMBER && (arg instanceof Integer || arg instanceof Long)) {
+                sb.append(((Number) arg).longValue());
+            } else sb.append(arg);
+        }
+        return sb.append(template.literals[template.slots.length]).toString();
+    }
+
+    /**
+     * 编译模板, 只支持 %s %d %%, 其他格式串保留原文交给 String.format.
+     */
+    private static Template compile(String raw) {
+        ArrayList<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        StringBuilder slots = new StringBuilder();
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            char next = i + 1 < raw.length() ? raw.charAt(i + 1) : 0;
+            if (next == '%') {
+                literal.append('%');
+            } else if (next == STRING || next == NUMBER) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.append(next);
+            } else return new Template(raw, null, null);
+            i++;
+        }
+        literals.add(literal.toString());
+        if (slots.length() == 0) return new Template(raw, new String[]{literals.get(0)}, null);
+        return new Template(raw, literals.toArray(new String[0]), slots.toString().toCharArray());
+    }
+
+    /**
+     * 解析语言文件, 支持 # 注释、key = "value" 与 name { ... } 嵌套.
+     */
+    private static void parse(InputStream in, Map<String, String> entries) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ArrayDeque<String> prefix = new ArrayDeque<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("//")) continue;
+            if (line.equals("}")) {
+                prefix.poll();
+                continue;
+            }
+            if (line.endsWith("{")) {
+                String name = line.substring(0, line.length() - 1).trim();
+                prefix.push(prefix.isEmpty() ? name : prefix.peek() + "." + name);
+                continue;
+            }
+            int split = line.indexOf('=');
+            if (split < 0) split = line.indexOf(':');
+            if (split <= 0) continue;
+            String key = line.substring(0, split).trim();
+            String value = line.substring(split + 1).trim();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = unescape(value.substring(1, value.length() - 1));
+            }
+            entries.put(prefix.isEmpty() ? key : prefix.peek() + "." + key, value);
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+            } else sb.append(c);
+        }
+        return sb.toString();
+    }
+}
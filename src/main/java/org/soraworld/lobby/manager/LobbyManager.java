@@ -2,13 +2,24 @@ package org.soraworld.lobby.manager;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.soraworld.lobby.core.ExampleLobby;
+import org.soraworld.lobby.core.FactionIndex;
 import org.soraworld.lobby.core.GameState;
 import org.soraworld.lobby.core.IGameLobby;
 import org.soraworld.lobby.core.LobbyData;
+import org.soraworld.lobby.core.LobbySnapshot;
+import org.soraworld.lobby.core.LobbyTemplate;
+import org.soraworld.lobby.core.LobbyTicker;
+import org.soraworld.lobby.core.LobbyTimings;
+import org.soraworld.lobby.core.MemberList;
+import org.soraworld.lobby.core.PlayerGrid;
+import org.soraworld.lobby.core.PlayerIndex;
 import org.soraworld.violet.inject.MainManager;
 import org.soraworld.violet.manager.VManager;
 import org.soraworld.violet.plugin.SpigotPlugin;
@@ -16,16 +27,62 @@ import org.soraworld.violet.util.ChatColor;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 @MainManager
 public class LobbyManager extends VManager {
 
-    private HashMap<UUID, String> playerGames = new HashMap<>();
+    private static final int COMPLETE_LIMIT = 64;
+    private static final int BULK_BATCH = 16;
+    private static final long RESTORE_TIMEOUT = 300000L;
+
+    private PlayerIndex<IGameLobby> playerGames = new PlayerIndex<>();
     private HashMap<String, IGameLobby> registerLobbies = new HashMap<>();
     private HashMap<IGameLobby, LobbyData> lobbyDataMap = new HashMap<>();
+    private HashMap<UUID, PlayerGrid> playerGrids = new HashMap<>();
+    private HashMap<String, LobbyJournal.Restored> restored = new HashMap<>();
+    private HashMap<UUID, IGameLobby> pendingGames = new HashMap<>();
+    private volatile Map<String, IGameLobby> lobbyView = Collections.emptyMap();
+    private final ConcurrentHashMap<UUID, IGameLobby> playerView = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, GameState> stateView = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LobbySnapshot> snapshotView = new ConcurrentHashMap<>();
+    private final LobbyTicker ticker;
+    private final LobbyJournal journal;
+    private final LobbyMatcher matcher = new LobbyMatcher();
+    private final NameIndex lobbyNames = new NameIndex();
+    private final WorldPartition partition = new WorldPartition();
+    private final LobbySelector selector = new LobbySelector(lobbyNames, this::getRegisterLobby);
+    private final LobbyLang lang;
+    private final int statsLobby, statsPhase;
+    private final HashMap<String, LobbyPool> pools = new HashMap<>();
+    private BukkitTask compactTask = null, matchTask = null, poolTask = null, langTask = null, snapshotTask = null;
 
     public LobbyManager(SpigotPlugin plugin, Path path) {
         super(plugin, path);
+        this.ticker = new LobbyTicker(plugin);
+        this.journal = new LobbyJournal(path, plugin.getLogger());
+        this.lang = new LobbyLang(path.resolve("lang"), "/assets/lobby/lang/", plugin.getLogger());
+        this.statsLobby = lang.id("stats.lobby");
+        this.statsPhase = lang.id("stats.phase");
+    }
+
+    /**
+     * 使用预编译的语言模板翻译, 插件语言文件中不存在的键交给 Violet 处理.
+     *
+     * @param key  键
+     * @param args 参数
+     * @return 翻译后的消息
+     */
+    @Override
+    public String trans(String key, Object... args) {
+        String text = lang.format(getLang(), key, args);
+        return text != null ? text : super.trans(key, args);
+    }
+
+    private String trans(int id, String key, Object... args) {
+        String text = lang.format(getLang(), id, args);
+        return text != null ? text : super.trans(key, args);
     }
 
     public ChatColor defChatColor() {
@@ -38,13 +95,142 @@ public class LobbyManager extends VManager {
      * @param lobby 大厅
      */
     public void registerGameLobby(@NotNull IGameLobby lobby) {
+        LobbyData data = new LobbyData();
+        data.rules = lobby.rules();
+        register(lobby, data);
+    }
+
+    private boolean register(IGameLobby lobby, LobbyData data) {
         if (registerLobbies.putIfAbsent(lobby.id(), lobby) != null) {
             consoleKey("gameAlreadyExist", lobby.id());
+            return false;
         } else {
-            LobbyData data = new LobbyData();
-            data.task = Bukkit.getScheduler().runTaskTimer(plugin, lobby::update, lobby.cycle(), lobby.cycle());
+            data.entry = ticker.schedule(lobby);
             lobbyDataMap.put(lobby, data);
+            data.nextOpen = lobby.nextOpenTime();
+            restoreLobby(lobby, data);
+            stateView.put(lobby.id(), data.state);
+            lobbyNames.add(lobby.id());
+            selector.add(lobby, data.state);
+            String world = lobby.worldName();
+            if (world != null) {
+                partition.add(lobby, world, lobby.getRegion());
+                // 所在世界尚未加载, 挂起到世界加载时
+                if (Bukkit.getWorld(world) == null) {
+                    data.suspended = true;
+                    ticker.park(data.entry, Long.MAX_VALUE);
+                }
+            }
+            publishLobbies();
+            publishSnapshot(lobby);
+            reindex(lobby, data);
             consoleKey("gameRegisterSuccess", lobby.id());
+            return true;
+        }
+    }
+
+    /**
+     * 注册大厅模板, 并生成模板要求保留的实例.
+     *
+     * @param template 模板
+     */
+    public void registerTemplate(@NotNull LobbyTemplate template) {
+        if (pools.putIfAbsent(template.getName(), new LobbyPool(template)) != null) {
+            consoleKey("templateAlreadyExist", template.getName());
+        } else {
+            spawnInstances(template.getName(), template.getMinInstances());
+            consoleKey("templateRegisterSuccess", template.getName());
+        }
+    }
+
+    /**
+     * 取消注册大厅模板及其全部实例.
+     *
+     * @param name 模板名
+     */
+    public void unregisterTemplate(@NotNull String name) {
+        LobbyPool pool = pools.remove(name);
+        if (pool != null) {
+            pool.liveLobbies().forEach(lobby -> unregisterGameLobby(lobby.id()));
+            pool.clear();
+        }
+    }
+
+    /**
+     * 由模板生成大厅实例, 优先从预热池中取出.
+     *
+     * @param name  模板名
+     * @param count 数量
+     * @return 已注册的实例
+     */
+    @NotNull
+    public List<IGameLobby> spawnInstances(@NotNull String name, int count) {
+        LobbyPool pool = pools.get(name);
+        if (pool == null) return Collections.emptyList();
+        ArrayList<IGameLobby> lobbies = new ArrayList<>();
+        while (count-- > 0) {
+            LobbyPool.Instance instance = pool.take();
+            if (instance == null) break;
+            if (register(instance.lobby, instance.data)) {
+                pool.live(instance);
+                lobbies.add(instance.lobby);
+            } else pool.discard(instance);
+        }
+        return lobbies;
+    }
+
+    /**
+     * 回收模板实例到预热池.
+     *
+     * @param lobby 大厅实例
+     * @return 是否为模板实例
+     */
+    public boolean reclaimInstance(@NotNull IGameLobby lobby) {
+        for (LobbyPool pool : pools.values()) {
+            if (pool.isLive(lobby)) {
+                if (lobby.getState() == GameState.START) lobby.finishGame();
+                if (lobby.getState().canClose()) lobby.closeLobby(null);
+                unregisterGameLobby(lobby.id());
+                pool.release(lobby);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<String> getTemplates() {
+        return new ArrayList<>(pools.keySet());
+    }
+
+    public void trySpawnInstances(@NotNull CommandSender sender, @NotNull String name, int count) {
+        if (pools.containsKey(name)) {
+            StringJoiner joiner = new StringJoiner(",");
+            spawnInstances(name, count).forEach(lobby -> joiner.add(lobby.id()));
+            sendKey(sender, "spawnInstances", name, joiner.toString());
+        } else sendKey(sender, "templateNotExist", name);
+    }
+
+    /**
+     * 维护模板实例: 每次预热一个实例，
+     * 有玩家排队但没有可加入实例时扩容，空闲超时的实例回收到池中.
+     */
+    private void updatePools() {
+        long tick = ticker.getTick();
+        for (LobbyPool pool : pools.values()) {
+            LobbyTemplate template = pool.template;
+            pool.warm();
+            if (matcher.waiting(template.getName()) > 0 && matcher.select(template.getName()) == null) {
+                spawnInstances(template.getName(), 1).forEach(lobby -> lobby.openLobby(null));
+            }
+            for (IGameLobby lobby : pool.liveLobbies()) {
+                LobbyData data = getLobbyData(lobby);
+                if (data.state == GameState.CLOSE || data.state == GameState.OPEN && data.joined == 0) {
+                    if (data.idleSince < 0) data.idleSince = tick;
+                    else if (tick - data.idleSince >= template.getIdleTimeout() && pool.liveCount() > template.getMinInstances()) {
+                        reclaimInstance(lobby);
+                    }
+                } else data.idleSince = -1;
+            }
         }
     }
 
@@ -77,33 +263,163 @@ public class LobbyManager extends VManager {
         IGameLobby lobby = registerLobbies.remove(name);
         if (lobby != null) {
             LobbyData data = lobbyDataMap.remove(lobby);
+            stateView.remove(name);
+            snapshotView.remove(name);
+            lobbyNames.remove(name);
+            selector.remove(lobby);
+            partition.remove(lobby);
+            playerView.values().removeIf(value -> value == lobby);
+            publishLobbies();
+            matcher.remove(lobby);
             if (data != null) {
-                data.players.forEach(p -> playerGames.remove(p.getUniqueId()));
+                playerGames.removeValue(lobby);
+                data.pending.keySet().forEach(uuid -> pendingGames.remove(uuid, lobby));
+                data.pending.clear();
+                data.restoring.clear();
                 data.players.clear();
                 data.factions.clear();
-                if (data.task != null) data.task.cancel();
+                data.members.clear();
+                if (data.entry != null) ticker.cancel(data.entry);
+                if (data.teleport != null) data.teleport.cancel();
             }
             consoleKey("gameRemoved", name);
         } else consoleKey("gameNotExist", name);
     }
 
     public IGameLobby getPlayerLobby(@NotNull UUID uuid) {
-        return registerLobbies.get(playerGames.getOrDefault(uuid, ""));
+        return playerGames.get(uuid);
+    }
+
+    /**
+     * 获取玩家所在的游戏大厅.
+     * 线程安全，可在异步线程调用.
+     *
+     * @param uuid 玩家 UUID
+     * @return 游戏大厅
+     */
+    @Nullable
+    public IGameLobby getPlayerLobbyAsync(@NotNull UUID uuid) {
+        return playerView.get(uuid);
+    }
+
+    /**
+     * 获取已注册游戏大厅的不可变快照.
+     * 线程安全，可在异步线程调用.
+     *
+     * @return 大厅 id -&gt; 游戏大厅
+     */
+    @NotNull
+    public Map<String, IGameLobby> getLobbiesAsync() {
+        return lobbyView;
+    }
+
+    /**
+     * 获取游戏大厅状态.
+     * 线程安全，可在异步线程调用.
+     *
+     * @param name 大厅 id
+     * @return 状态, 未注册时返回 null
+     */
+    @Nullable
+    public GameState getLobbyStateAsync(@NotNull String name) {
+        return stateView.get(name);
+    }
+
+    /**
+     * 获取游戏大厅最近发布的快照(人数/阵营/时间).
+     * 线程安全，可在异步线程调用.
+     * 状态变化时立即发布，其余变化每秒发布一次.
+     *
+     * @param name 大厅 id
+     * @return 快照, 未注册时返回 null
+     */
+    @Nullable
+    public LobbySnapshot getLobbySnapshotAsync(@NotNull String name) {
+        return snapshotView.get(name);
+    }
+
+    private void publishSnapshot(IGameLobby lobby) {
+        LobbySnapshot snapshot = lobby.getSnapshot();
+        if (snapshotView.get(lobby.id()) != snapshot) snapshotView.put(lobby.id(), snapshot);
+    }
+
+    private void bindPlayer(UUID uuid, IGameLobby lobby) {
+        IGameLobby old = playerGames.put(uuid, lobby);
+        playerView.put(uuid, lobby);
+        if (old != lobby) {
+            if (old != null && lobbyDataMap.containsKey(old)) {
+                lobbyDataMap.get(old).joined--;
+                reindex(old, lobbyDataMap.get(old));
+            }
+            LobbyData data = getLobbyData(lobby);
+            data.joined++;
+            reindex(lobby, data);
+        }
+    }
+
+    private IGameLobby unbindPlayer(UUID uuid) {
+        playerView.remove(uuid);
+        IGameLobby lobby = playerGames.remove(uuid);
+        if (lobby != null && lobbyDataMap.containsKey(lobby)) {
+            lobbyDataMap.get(lobby).joined--;
+            reindex(lobby, lobbyDataMap.get(lobby));
+        }
+        return lobby;
+    }
+
+    private void reindex(IGameLobby lobby, LobbyData data) {
+        if (!registerLobbies.containsKey(lobby.id())) return;
+        int capacity = data.rules != null && data.rules.getMaxPlayers() > 0 ? data.rules.getMaxPlayers() : Integer.MAX_VALUE;
+        matcher.update(lobby, typeOf(lobby, data), data.state == GameState.OPEN && !data.suspended, capacity - data.joined);
+    }
+
+    private static String typeOf(IGameLobby lobby, LobbyData data) {
+        return data.gameType != null ? data.gameType : lobby.gameType();
+    }
+
+    private void publishLobbies() {
+        lobbyView = Collections.unmodifiableMap(new HashMap<>(registerLobbies));
     }
 
     public void tryOpenGame(@NotNull CommandSender sender, @NotNull String name) {
+        if (LobbySelector.isSelector(name)) {
+            bulk(sender, name, "open", lobby -> {
+                // 已开启与未准备好的大厅计入跳过, 不逐个输出 notPrepare
+                LobbyData data = getLobbyData(lobby);
+                if (!data.state.canOpen() || data.suspended || !lobby.checkPrepare()) return false;
+                lobby.openLobby(null);
+                return lobby.getState() == GameState.OPEN;
+            });
+            return;
+        }
         IGameLobby lobby = registerLobbies.get(name);
         if (lobby != null) lobby.openLobby(sender);
         else sendKey(sender, "gameNotExist", name);
     }
 
     public void tryCloseGame(@NotNull CommandSender sender, @NotNull String name) {
+        if (LobbySelector.isSelector(name)) {
+            bulk(sender, name, "close", lobby -> {
+                if (!lobby.getState().canClose()) return false;
+                lobby.closeLobby(null);
+                return lobby.getState() == GameState.CLOSE;
+            });
+            return;
+        }
         IGameLobby lobby = registerLobbies.get(name);
         if (lobby != null) lobby.closeLobby(sender);
         else sendKey(sender, "gameNotExist", name);
     }
 
     public void tryForceFinishGame(@NotNull CommandSender sender, @NotNull String name) {
+        if (LobbySelector.isSelector(name)) {
+            bulk(sender, name, "finish", lobby -> {
+                if (lobby.getState() != GameState.START) return false;
+                lobby.finishGame();
+                return true;
+            });
+            return;
+        }
         IGameLobby lobby = registerLobbies.get(name);
         if (lobby != null) {
             if (lobby.getState() == GameState.START) {
@@ -117,9 +433,9 @@ public class LobbyManager extends VManager {
 
     public void tryJoinGame(@NotNull Player player, @NotNull String game) {
         UUID uuid = player.getUniqueId();
-        String current = playerGames.get(uuid);
-        if (current != null && registerLobbies.containsKey(current)) {
-            sendKey(player, "alreadyInGame", registerLobbies.get(current).display());
+        IGameLobby current = playerGames.get(uuid);
+        if (current != null) {
+            sendKey(player, "alreadyInGame", current.display());
             return;
         }
         IGameLobby lobby = registerLobbies.get(game);
@@ -127,12 +443,7 @@ public class LobbyManager extends VManager {
             switch (lobby.getState()) {
                 case OPEN:
                 case FINISH:
-                    if (lobby.onPlayerJoin(player)) {
-                        playerGames.put(uuid, game);
-                        if (!lobby.inLobbyRange(player)) {
-                            lobby.tpPlayerToLobby(player);
-                        }
-                    } else sendKey(player, "gameRejectJoin", lobby.display());
+                    joinLobby(player, lobby);
                     break;
                 case START:
                     sendKey(player, "gameStarted", lobby.display());
@@ -143,6 +454,113 @@ public class LobbyManager extends VManager {
         } else sendKey(player, "gameNotExist", game);
     }
 
+    private boolean joinLobby(Player player, IGameLobby lobby) {
+        LobbyData data = getLobbyData(lobby);
+        if (data.suspended) {
+            sendKey(player, "gameSuspended", lobby.display());
+        } else if (data.rules != null && data.rules.isFull(data.joined)) {
+            sendKey(player, "gameFull", lobby.display());
+        } else if (lobby.onPlayerJoin(player)) {
+            UUID uuid = player.getUniqueId();
+            matcher.dequeue(uuid);
+            bindPlayer(uuid, lobby);
+            journal.join(lobby.id(), uuid);
+            if (!lobby.inLobbyRange(player)) {
+                lobby.tpPlayerToLobby(player);
+            } else if (lobby.incremental()) {
+                lobby.updateMember(player, player.getLocation());
+            }
+            return true;
+        } else sendKey(player, "gameRejectJoin", lobby.display());
+        return false;
+    }
+
+    /**
+     * 加入匹配队列, 由队列自动分配到同类型的开启大厅.
+     *
+     * @param player 玩家
+     * @param type   游戏类型
+     */
+    public void tryQueueGame(@NotNull Player player, @NotNull String type) {
+        UUID uuid = player.getUniqueId();
+        IGameLobby current = playerGames.get(uuid);
+        if (current != null) {
+            sendKey(player, "alreadyInGame", current.display());
+        } else if (!matcher.hasType(type) && !pools.containsKey(type)) {
+            sendKey(player, "gameTypeNotExist", type);
+        } else {
+            String queued = matcher.getQueued(uuid);
+            if (queued != null) {
+                sendKey(player, "alreadyInQueue", queued);
+            } else sendKey(player, "joinQueue", type, matcher.enqueue(uuid, type));
+        }
+    }
+
+    private void assignQueue() {
+        matcher.drain(32, (uuid, lobby) -> {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null || playerGames.get(uuid) != null) return false;
+            if (joinLobby(player, lobby)) {
+                sendKey(player, "queueAssigned", lobby.display());
+                return true;
+            }
+            // joinLobby 已提示失败原因, 这里告知玩家已离开队列
+            sendKey(player, "queueDropped", typeOf(lobby, getLobbyData(lobby)));
+            return false;
+        });
+    }
+
+    public List<String> getGameTypes() {
+        return new ArrayList<>(matcher.getTypes());
+    }
+
+    /**
+     * 向多个执行者广播消息键.
+     * 消息只翻译格式化一次，所有接收者发送相同文本.
+     *
+     * @param targets 接收者
+     * @param key     键
+     * @param args    参数
+     */
+    public void broadcastKey(@NotNull Collection<? extends CommandSender> targets, @NotNull String key, Object... args) {
+        if (targets.isEmpty()) return;
+        String message = trans(key, args);
+        for (CommandSender target : targets) send(target, message);
+    }
+
+    /**
+     * 对选择器匹配的大厅批量执行操作.
+     * 每 tick 最多处理 {@code BULK_BATCH} 个大厅，全部完成后发送一条汇总消息.
+     *
+     * @param sender    执行者
+     * @param text      选择器
+     * @param action    操作名
+     * @param operation 操作, 返回是否成功
+     */
+    private void bulk(CommandSender sender, String text, String action, Predicate<IGameLobby> operation) {
+        List<IGameLobby> lobbies = selector.select(text);
+        if (lobbies == null) {
+            sendKey(sender, "invalidSelector", text);
+            return;
+        }
+        if (lobbies.isEmpty()) {
+            sendKey(sender, "selectorNoMatch", text);
+            return;
+        }
+        new Runnable() {
+            private int index = 0, success = 0;
+
+            public void run() {
+                for (int end = Math.min(index + BULK_BATCH, lobbies.size()); index < end; index++) {
+                    IGameLobby lobby = lobbies.get(index);
+                    if (registerLobbies.get(lobby.id()) == lobby && operation.test(lobby)) success++;
+                }
+                if (index < lobbies.size()) Bukkit.getScheduler().runTask(plugin, this);
+                else sendKey(sender, "bulkResult", action, text, lobbies.size(), success, lobbies.size() - success);
+            }
+        }.run();
+    }
+
     public void listGames(@NotNull CommandSender sender) {
         StringJoiner joiner = new StringJoiner(",");
         registerLobbies.keySet().forEach(joiner::add);
@@ -151,43 +569,309 @@ public class LobbyManager extends VManager {
 
     public void tryQuitGame(@NotNull Player player) {
         UUID uuid = player.getUniqueId();
-        String current = playerGames.get(uuid);
-        if (current != null) {
-            IGameLobby lobby = registerLobbies.get(current);
-            if (lobby != null) {
-                if (lobby.onPlayerQuit(player)) {
-                    playerGames.remove(uuid);
-                    sendKey(player, "quitGame", lobby.display());
-                } else sendKey(player, "gameRejectQuit", lobby.display());
-            } else sendKey(player, "gameNotExist", current);
+        IGameLobby lobby = playerGames.get(uuid);
+        if (lobby != null) {
+            if (lobby.onPlayerQuit(player)) {
+                lobby.removeMember(player);
+                unbindPlayer(uuid);
+                journal.leave(uuid);
+                sendKey(player, "quitGame", lobby.display());
+            } else sendKey(player, "gameRejectQuit", lobby.display());
+        } else if (matcher.dequeue(uuid)) {
+            sendKey(player, "quitQueue");
         } else sendKey(player, "notJoinAnyGame");
     }
 
     public void clearGame(@NotNull Player player) {
-        playerGames.remove(player.getUniqueId());
+        matcher.dequeue(player.getUniqueId());
+        if (unbindPlayer(player.getUniqueId()) != null) journal.leave(player.getUniqueId());
+    }
+
+    /**
+     * 大厅状态变化时调用，写入状态日志.
+     *
+     * @param lobby 大厅
+     * @param data  大厅数据
+     */
+    public void onStateChange(@NotNull IGameLobby lobby, @NotNull LobbyData data) {
+        String id = lobby.id();
+        data.snapshot = null;
+        stateView.replace(id, data.state);
+        selector.update(lobby, data.state);
+        reindex(lobby, data);
+        journal.state(id, data.state, data.lobbyLife, data.gameLife);
+        publishSnapshot(lobby);
+        if (data.state == GameState.CLOSE) dropPending(lobby, data, Long.MAX_VALUE);
+        if (data.state == GameState.START) {
+            FactionIndex index = lobby.getFactionIndex();
+            data.members.forEach((uuid, fac) -> journal.member(id, uuid, index.indexOf(fac)));
+        }
+        if (journal.shouldCompact()) compactJournal();
+    }
+
+    /**
+     * 玩家上线时恢复其在重启前所在的游戏与阵营.
+     * 重启时离线的玩家在此时才绑定到大厅，大厅已满时放弃恢复.
+     *
+     * @param player 玩家
+     */
+    public void restoreMember(@NotNull Player player) {
+        UUID uuid = player.getUniqueId();
+        IGameLobby lobby = playerGames.get(uuid);
+        if (lobby == null) {
+            lobby = pendingGames.remove(uuid);
+            LobbyData data = lobby != null ? lobbyDataMap.get(lobby) : null;
+            if (data == null || data.pending.remove(uuid) == null) return;
+            if (data.rules != null && data.rules.isFull(data.joined)) {
+                data.restoring.remove(uuid);
+                journal.leave(uuid);
+                return;
+            }
+            bindPlayer(uuid, lobby);
+        }
+        LobbyData data = getLobbyData(lobby);
+        Integer faction = data.restoring.remove(uuid);
+        if (faction == null || data.members.containsKey(uuid)) return;
+        FactionIndex index = lobby.getFactionIndex();
+        Location fac = faction >= 0 && faction < index.size() ? index.get(faction) : null;
+        data.players.add(player);
+        data.snapshot = null;
+        data.membership++;
+        data.members.put(uuid, fac);
+        data.factions.computeIfAbsent(fac, location -> new MemberList()).add(player);
+    }
+
+    private void restoreLobby(IGameLobby lobby, LobbyData data) {
+        LobbyJournal.Restored state = restored.remove(lobby.id());
+        if (state == null) return;
+        data.state = state.state;
+        stateView.replace(lobby.id(), data.state);
+        selector.update(lobby, data.state);
+        data.lobbyLife = state.lobbyLife;
+        data.gameLife = state.gameLife;
+        // 离线玩家暂不计入人数，上线时再绑定，超时或大厅关闭时放弃
+        long expireAt = System.currentTimeMillis() + RESTORE_TIMEOUT;
+        state.joined.forEach(uuid -> {
+            if (playerGames.get(uuid) != null || pendingGames.containsKey(uuid)) return;
+            if (Bukkit.getPlayer(uuid) != null) bindPlayer(uuid, lobby);
+            else {
+                pendingGames.put(uuid, lobby);
+                data.pending.put(uuid, expireAt);
+            }
+        });
+        if (data.state == GameState.START || data.state == GameState.FINISH) {
+            data.restoring.putAll(state.members);
+            new ArrayList<>(data.restoring.keySet()).forEach(uuid -> {
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null) restoreMember(player);
+            });
+        }
+    }
+
+    /**
+     * 放弃到期的待恢复玩家.
+     *
+     * @param lobby 大厅
+     * @param data  大厅数据
+     * @param now   当前时间(毫秒), {@link Long#MAX_VALUE} 时全部放弃
+     */
+    private void dropPending(IGameLobby lobby, LobbyData data, long now) {
+        if (data.pending.isEmpty()) return;
+        data.pending.entrySet().removeIf(entry -> {
+            if (entry.getValue() > now) return false;
+            UUID uuid = entry.getKey();
+            pendingGames.remove(uuid, lobby);
+            data.restoring.remove(uuid);
+            journal.leave(uuid);
+            return true;
+        });
+    }
+
+    private void compactJournal() {
+        long now = System.currentTimeMillis();
+        lobbyDataMap.forEach((lobby, data) -> dropPending(lobby, data, now));
+        journal.compact(collector -> {
+            registerLobbies.forEach((id, lobby) -> {
+                LobbyData data = getLobbyData(lobby);
+                collector.state(id, data.state, data.lobbyLife, data.gameLife);
+                if (data.state == GameState.START || data.state == GameState.FINISH) {
+                    FactionIndex index = lobby.getFactionIndex();
+                    data.members.forEach((uuid, fac) -> collector.member(id, uuid, index.indexOf(fac)));
+                    data.restoring.forEach((uuid, fac) -> collector.member(id, uuid, fac));
+                }
+            });
+            playerGames.forEach((uuid, lobby) -> collector.join(lobby.id(), uuid));
+            pendingGames.forEach((uuid, lobby) -> collector.join(lobby.id(), uuid));
+            restored.forEach((id, state) -> {
+                collector.state(id, state.state, state.lobbyLife, state.gameLife);
+                state.joined.forEach(uuid -> collector.join(id, uuid));
+                state.members.forEach((uuid, fac) -> collector.member(id, uuid, fac));
+            });
+        });
+    }
+
+    /**
+     * 玩家位置变化时，增量更新其所在大厅的人员状态.
+     *
+     * @param player 玩家
+     * @param loc    新位置
+     */
+    public void updateMember(@NotNull Player player, @NotNull Location loc) {
+        IGameLobby lobby = getPlayerLobby(player.getUniqueId());
+        if (lobby == null || !lobby.incremental()) return;
+        LobbyData data = getLobbyData(lobby);
+        if (data.suspended) return;
+        if (partition.covers(lobby, loc)) lobby.updateMember(player, loc);
+        else if (data.members.containsKey(player.getUniqueId())) lobby.removeMember(player);
+    }
+
+    /**
+     * 大厅范围变化后更新世界分区索引.
+     *
+     * @param lobby 大厅
+     */
+    public void relocate(@NotNull IGameLobby lobby) {
+        if (registerLobbies.get(lobby.id()) != lobby) return;
+        partition.remove(lobby);
+        String world = lobby.worldName();
+        if (world != null) partition.add(lobby, world, lobby.getRegion());
+    }
+
+    /**
+     * 获取范围位于该世界的大厅.
+     *
+     * @param world 世界
+     * @return 大厅集合(只读)
+     */
+    @NotNull
+    public Set<IGameLobby> getWorldLobbies(@NotNull World world) {
+        return partition.inWorld(world.getName());
+    }
+
+    /**
+     * 获取范围覆盖该位置所在区域(256x256)的大厅.
+     *
+     * @param loc 位置
+     * @return 大厅列表(只读)
+     */
+    @NotNull
+    public List<IGameLobby> getLobbiesAt(@NotNull Location loc) {
+        return partition.at(loc);
+    }
+
+    /**
+     * 世界卸载时挂起该世界的全部大厅.
+     * 进行中的游戏会被结束并关闭大厅，
+     * 挂起的大厅移出时间轮，不能开启，直到世界重新加载.
+     *
+     * @param world 世界
+     */
+    public void suspendWorld(@NotNull World world) {
+        playerGrids.remove(world.getUID());
+        // 结束/关闭回调中可能注销或移动大厅, 遍历副本
+        for (IGameLobby lobby : new ArrayList<>(partition.inWorld(world.getName()))) {
+            LobbyData data = lobbyDataMap.get(lobby);
+            if (data == null || data.suspended) continue;
+            data.suspended = true;
+            if (data.teleport != null) {
+                data.teleport.cancel();
+                data.teleport = null;
+            }
+            // 游戏目标可能在其他世界，进行中的游戏直接结束并关闭，释放其中的玩家
+            if (data.state == GameState.START) lobby.finishGame();
+            if (data.state == GameState.FINISH) lobby.closeLobby(null);
+            if (data.entry != null) ticker.park(data.entry, Long.MAX_VALUE);
+            reindex(lobby, data);
+            consoleKey("lobbySuspended", lobby.id(), world.getName());
+        }
+    }
+
+    /**
+     * 世界加载时恢复该世界中被挂起的大厅, 并重新编译其范围.
+     *
+     * @param world 世界
+     */
+    public void resumeWorld(@NotNull World world) {
+        for (IGameLobby lobby : new ArrayList<>(partition.inWorld(world.getName()))) {
+            LobbyData data = getLobbyData(lobby);
+            if (!data.suspended) continue;
+            data.suspended = false;
+            data.synced = false;
+            lobby.invalidate();
+            if (data.entry != null) ticker.wake(data.entry);
+            reindex(lobby, data);
+            consoleKey("lobbyResumed", lobby.id(), world.getName());
+        }
     }
 
     @Override
     public void afterLoad() {
+        lang.reload(getLang());
+        if (langTask == null) {
+            langTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin,
+                    () -> lang.checkModified(swap -> {
+                        if (plugin.isEnabled()) Bukkit.getScheduler().runTask(plugin, swap);
+                    }), 100, 100);
+        }
+        if (compactTask == null) {
+            restored.putAll(journal.load());
+            registerLobbies.forEach((id, lobby) -> restoreLobby(lobby, getLobbyData(lobby)));
+            compactTask = Bukkit.getScheduler().runTaskTimer(plugin, this::compactJournal, 1200, 1200);
+        }
+        if (matchTask == null) {
+            matchTask = Bukkit.getScheduler().runTaskTimer(plugin, this::assignQueue, 10, 10);
+        }
+        if (poolTask == null) {
+            poolTask = Bukkit.getScheduler().runTaskTimer(plugin, this::updatePools, 20, 20);
+        }
+        if (snapshotTask == null) {
+            snapshotTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> registerLobbies.values().forEach(this::publishSnapshot), 20, 20);
+        }
         if (!registerLobbies.containsKey("example")) {
             registerGameLobby(new ExampleLobby(new Location(Bukkit.getWorlds().get(0), 0, 100, 0)));
         }
     }
 
     public boolean isJoined(@NotNull Player player, @NotNull IGameLobby lobby) {
-        return registerLobbies.get(playerGames.getOrDefault(player.getUniqueId(), "")) == lobby;
+        return playerGames.get(player.getUniqueId()) == lobby;
     }
 
     public List<String> getLobbies() {
         return new ArrayList<>(registerLobbies.keySet());
     }
 
+    /**
+     * 大厅 id 前缀补全(忽略大小写), 最多返回 {@code COMPLETE_LIMIT} 个.
+     *
+     * @param prefix 前缀
+     * @return 大厅 id 列表
+     */
+    @NotNull
+    public List<String> completeLobbies(@Nullable String prefix) {
+        return lobbyNames.complete(prefix, COMPLETE_LIMIT);
+    }
+
     @NotNull
     public LobbyData getLobbyData(@NotNull IGameLobby lobby) {
         return lobbyDataMap.computeIfAbsent(lobby, l -> new LobbyData());
     }
 
     public void showInfo(@NotNull CommandSender sender, @NotNull String game) {
+        if (LobbySelector.isSelector(game)) {
+            List<IGameLobby> lobbies = selector.select(game);
+            if (lobbies == null) sendKey(sender, "invalidSelector", game);
+            else if (lobbies.isEmpty()) sendKey(sender, "selectorNoMatch", game);
+            else {
+                sendKey(sender, "info.head");
+                for (IGameLobby lobby : lobbies) {
+                    LobbyData data = getLobbyData(lobby);
+                    sendKey(sender, "info.row", lobby.id(), data.state, data.players.size(), data.joined);
+                }
+                sendKey(sender, "info.total", lobbies.size());
+                sendKey(sender, "info.foot");
+            }
+            return;
+        }
         IGameLobby lobby = registerLobbies.get(game);
         if (lobby != null) {
             LobbyData data = getLobbyData(lobby);
@@ -211,8 +895,92 @@ public class LobbyManager extends VManager {
         }
     }
 
+    public void showStats(@NotNull CommandSender sender, @Nullable String game) {
+        if (game == null) {
+            sendKey(sender, "stats.head");
+            registerLobbies.forEach((id, lobby) -> {
+                LobbyData data = getLobbyData(lobby);
+                LobbyTimings timings = data.timings;
+                send(sender, trans(statsLobby, "stats.lobby", id,
+                        formatNanos(timings.percentile(LobbyTimings.Phase.TOTAL, 0.5)),
+                        formatNanos(timings.percentile(LobbyTimings.Phase.TOTAL, 0.99)),
+                        formatNanos(timings.max(LobbyTimings.Phase.TOTAL)), data.players.size()));
+            });
+            sendKey(sender, "stats.dormant", ticker.dormantCount());
+            sendKey(sender, "stats.budget", formatNanos(ticker.getBudget()), ticker.getOverruns(), ticker.getDeferrals());
+            sendKey(sender, "stats.foot");
+            return;
+        }
+        IGameLobby lobby = registerLobbies.get(game);
+        if (lobby != null) {
+            LobbyData data = getLobbyData(lobby);
+            LobbyTimings timings = data.timings;
+            sendKey(sender, "stats.head");
+            sendKey(sender, "info.display", lobby.display());
+            for (LobbyTimings.Phase phase : LobbyTimings.Phase.values()) {
+                send(sender, trans(statsPhase, "stats.phase", phase.display(),
+                        formatNanos(timings.percentile(phase, 0.5)),
+                        formatNanos(timings.percentile(phase, 0.99)),
+                        formatNanos(timings.max(phase)), timings.count(phase)));
+            }
+            sendKey(sender, "stats.players", data.players.size());
+            sendKey(sender, "stats.foot");
+        } else sendKey(sender, "gameNotExist", game);
+    }
+
+    private static String formatNanos(long nanos) {
+        return String.format("%.3fms", nanos / 1000000.0D);
+    }
+
     public void unregisterAllLobbies() {
+        if (compactTask != null) {
+            compactTask.cancel();
+            compactTask = null;
+            compactJournal();
+            journal.close();
+        }
+        if (matchTask != null) {
+            matchTask.cancel();
+            matchTask = null;
+        }
+        if (poolTask != null) {
+            poolTask.cancel();
+            poolTask = null;
+        }
+        if (langTask != null) {
+            langTask.cancel();
+            langTask = null;
+        }
+        if (snapshotTask != null) {
+            snapshotTask.cancel();
+            snapshotTask = null;
+        }
+        new ArrayList<>(pools.keySet()).forEach(this::unregisterTemplate);
         List<String> ids = new ArrayList<>(registerLobbies.keySet());
         ids.forEach(this::unregisterGameLobby);
+        matcher.clear();
+        selector.clear();
+        partition.clear();
+        ticker.stop();
+        playerGrids.clear();
+    }
+
+    /**
+     * 获取世界的玩家网格索引, 每 tick 最多重建一次.
+     *
+     * @param world 世界
+     * @return 玩家网格索引
+     */
+    @NotNull
+    public PlayerGrid getPlayerGrid(@NotNull World world) {
+        PlayerGrid grid = playerGrids.computeIfAbsent(world.getUID(), uid -> new PlayerGrid());
+        long tick = ticker.getTick();
+        if (!grid.isFresh(tick)) grid.rebuild(world.getPlayers(), tick);
+        return grid;
+    }
+
+    @NotNull
+    public LobbyTicker getTicker() {
+        return ticker;
     }
 }
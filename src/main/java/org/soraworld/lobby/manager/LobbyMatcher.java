@@ -0,0 +1,202 @@
+package org.soraworld.lobby.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.soraworld.lobby.core.IGameLobby;
+import org.soraworld.lobby.core.MatchPolicy;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+
+/**
+ * 匹配队列.
+ * 按游戏类型维护可加入大厅的有序索引(剩余名额, 注册顺序)，
+ * 每次分配为 O(log n)，排队玩家分批分配.
+ */
+public final class LobbyMatcher {
+
+    private static final Comparator<Slot> ORDER = Comparator.<Slot>comparingInt(slot -> slot.free).thenComparingLong(slot -> slot.order);
+
+    private static final class Slot {
+        private final IGameLobby lobby;
+        private final String type;
+        private final long order;
+        private int free;
+        private boolean indexed;
+
+        private Slot(IGameLobby lobby, String type, long order, int free) {
+            this.lobby = lobby;
+            this.type = type;
+            this.order = order;
+            this.free = free;
+        }
+    }
+
+    private final HashMap<IGameLobby, Slot> slots = new HashMap<>();
+    private final HashMap<String, TreeSet<Slot>> available = new HashMap<>();
+    private final HashMap<String, Integer> types = new HashMap<>();
+    private final HashMap<String, MatchPolicy> policies = new HashMap<>();
+    private final LinkedHashMap<String, ArrayDeque<UUID>> queues = new LinkedHashMap<>();
+    private final HashMap<UUID, String> queued = new HashMap<>();
+    private final Slot probe = new Slot(null, "", Long.MIN_VALUE, 1);
+    private long counter = 0;
+
+    /**
+     * 更新大厅的可加入状态与剩余名额.
+     *
+     * @param lobby 大厅
+     * @param type  游戏类型, 只在首次加入时读取
+     * @param open  是否可加入
+     * @param free  剩余名额
+     */
+    public void update(@NotNull IGameLobby lobby, @NotNull String type, boolean open, int free) {
+        Slot slot = slots.get(lobby);
+        if (slot == null) {
+            slot = new Slot(lobby, type, counter++, free);
+            slots.put(lobby, slot);
+            types.merge(slot.type, 1, Integer::sum);
+            policies.putIfAbsent(slot.type, lobby.matchPolicy());
+        }
+        open = open && free > 0;
+        if (slot.indexed && (!open || slot.free != free)) {
+            available.get(slot.type).remove(slot);
+            slot.indexed = false;
+        }
+        slot.free = free;
+        if (open && !slot.indexed) {
+            available.computeIfAbsent(slot.type, key -> new TreeSet<>(ORDER)).add(slot);
+            slot.indexed = true;
+        }
+    }
+
+    /**
+     * 移除大厅.
+     *
+     * @param lobby 大厅
+     */
+    public void remove(@NotNull IGameLobby lobby) {
+        Slot slot = slots.remove(lobby);
+        if (slot == null) return;
+        if (slot.indexed) available.get(slot.type).remove(slot);
+        if (types.merge(slot.type, -1, Integer::sum) <= 0) {
+            types.remove(slot.type);
+            policies.remove(slot.type);
+        }
+    }
+
+    /**
+     * 是否存在该类型的大厅.
+     *
+     * @param type 游戏类型
+     * @return 是否存在
+     */
+    public boolean hasType(@NotNull String type) {
+        return types.containsKey(type);
+    }
+
+    /**
+     * 已注册的游戏类型.
+     *
+     * @return 类型集合
+     */
+    @NotNull
+    public Set<String> getTypes() {
+        return types.keySet();
+    }
+
+    /**
+     * 按该类型首个注册大厅的策略选择最佳大厅.
+     *
+     * @param type 游戏类型
+     * @return 大厅, 无可加入大厅时返回 null
+     */
+    @Nullable
+    public IGameLobby select(@NotNull String type) {
+        TreeSet<Slot> set = available.get(type);
+        if (set == null || set.isEmpty()) return null;
+        Slot slot = policies.get(type) == MatchPolicy.BALANCE ? set.last() : set.ceiling(probe);
+        return slot != null ? slot.lobby : null;
+    }
+
+    /**
+     * 玩家加入匹配队列.
+     *
+     * @param uuid 玩家 UUID
+     * @param type 游戏类型
+     * @return 队列中的位置, 已在队列中时返回 -1
+     */
+    public int enqueue(@NotNull UUID uuid, @NotNull String type) {
+        if (queued.putIfAbsent(uuid, type) != null) return -1;
+        ArrayDeque<UUID> queue = queues.computeIfAbsent(type, t -> new ArrayDeque<>());
+        queue.add(uuid);
+        return queue.size();
+    }
+
+    /**
+     * 玩家离开匹配队列.
+     *
+     * @param uuid 玩家 UUID
+     * @return 是否在队列中
+     */
+    public boolean dequeue(@NotNull UUID uuid) {
+        String type = queued.remove(uuid);
+        if (type == null) return false;
+        ArrayDeque<UUID> queue = queues.get(type);
+        if (queue != null) queue.remove(uuid);
+        return true;
+    }
+
+    /**
+     * 玩家所在的匹配队列.
+     *
+     * @param uuid 玩家 UUID
+     * @return 游戏类型, 不在队列中时返回 null
+     */
+    @Nullable
+    public String getQueued(@NotNull UUID uuid) {
+        return queued.get(uuid);
+    }
+
+    /**
+     * 该类型的排队人数.
+     *
+     * @param type 游戏类型
+     * @return 人数
+     */
+    public int waiting(@NotNull String type) {
+        ArrayDeque<UUID> queue = queues.get(type);
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * 分批分配排队玩家.
+     * 分配回调负责实际加入大厅，加入成功后应通过 {@link #update} 更新剩余名额.
+     *
+     * @param batch  本次最多分配的人数
+     * @param assign 分配回调
+     */
+    public void drain(int batch, @NotNull BiPredicate<UUID, IGameLobby> assign) {
+        Iterator<Map.Entry<String, ArrayDeque<UUID>>> it = queues.entrySet().iterator();
+        while (it.hasNext() && batch > 0) {
+            Map.Entry<String, ArrayDeque<UUID>> entry = it.next();
+            ArrayDeque<UUID> queue = entry.getValue();
+            while (!queue.isEmpty() && batch > 0) {
+                IGameLobby lobby = select(entry.getKey());
+                if (lobby == null) break;
+                UUID uuid = queue.poll();
+                queued.remove(uuid);
+                if (assign.test(uuid, lobby)) batch--;
+            }
+            if (queue.isEmpty()) it.remove();
+        }
+    }
+
+    public void clear() {
+        slots.clear();
+        available.clear();
+        types.clear();
+        policies.clear();
+        queues.clear();
+        queued.clear();
+    }
+}
@@ -0,0 +1,136 @@
+package org.soraworld.lobby.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.soraworld.lobby.core.FactionIndex;
+import org.soraworld.lobby.core.IGameLobby;
+import org.soraworld.lobby.core.LobbyData;
+import org.soraworld.lobby.core.LobbyRegion;
+import org.soraworld.lobby.core.LobbyTemplate;
+
+import java.util.*;
+
+/**
+ * 模板实例池.
+ * 池中实例已编译范围、构建阵营索引并读取规则，取出后可立即注册.
+ * 序号按最小空闲分配，回收的实例保留原序号与预计算数据.
+ */
+final class LobbyPool {
+
+    static final class Instance {
+        final IGameLobby lobby;
+        final int index;
+        LobbyData data;
+
+        private Instance(IGameLobby lobby, int index, LobbyData data) {
+            this.lobby = lobby;
+            this.index = index;
+            this.data = data;
+        }
+    }
+
+    final LobbyTemplate template;
+    private final BitSet allocated = new BitSet();
+    private final ArrayDeque<Instance> pool = new ArrayDeque<>();
+    private final LinkedHashMap<IGameLobby, Instance> live = new LinkedHashMap<>();
+
+    LobbyPool(@NotNull LobbyTemplate template) {
+        this.template = template;
+    }
+
+    /**
+     * 取出一个实例, 池为空时新建.
+     *
+     * @return 实例, 达到数量上限时返回 null
+     */
+    @Nullable
+    Instance take() {
+        Instance instance = pool.poll();
+        return instance != null ? instance : create();
+    }
+
+    void live(@NotNull Instance instance) {
+        live.put(instance.lobby, instance);
+    }
+
+    boolean isLive(@NotNull IGameLobby lobby) {
+        return live.containsKey(lobby);
+    }
+
+    int liveCount() {
+        return live.size();
+    }
+
+    @NotNull
+    List<IGameLobby> liveLobbies() {
+        return new ArrayList<>(live.keySet());
+    }
+
+    /**
+     * 回收已取消注册的实例, 池已满时释放其序号.
+     *
+     * @param lobby 大厅
+     */
+    void release(@NotNull IGameLobby lobby) {
+        Instance instance = live.remove(lobby);
+        if (instance == null) return;
+        if (pool.size() < template.getWarm()) {
+            instance.data = prepare(lobby, instance.data);
+            pool.add(instance);
+        } else allocated.clear(instance.index);
+    }
+
+    /**
+     * 丢弃实例并释放其序号.
+     *
+     * @param instance 实例
+     */
+    void discard(@NotNull Instance instance) {
+        live.remove(instance.lobby);
+        allocated.clear(instance.index);
+    }
+
+    /**
+     * 预热一个实例.
+     *
+     * @return 是否新建了实例
+     */
+    boolean warm() {
+        if (pool.size() >= template.getWarm()) return false;
+        Instance instance = create();
+        if (instance == null) return false;
+        pool.add(instance);
+        return true;
+    }
+
+    void clear() {
+        pool.clear();
+        live.clear();
+        allocated.clear();
+    }
+
+    @Nullable
+    private Instance create() {
+        int index = allocated.nextClearBit(0);
+        if (index >= template.getMaxInstances()) return null;
+        allocated.set(index);
+        IGameLobby lobby = template.create(index);
+        return new Instance(lobby, index, prepare(lobby, null));
+    }
+
+    private LobbyData prepare(IGameLobby lobby, LobbyData old) {
+        LobbyData data = new LobbyData();
+        // 未重写游戏类型的实例按模板名匹配
+        if (lobby.gameType().equals(lobby.id())) data.gameType = template.getName();
+        if (old != null) {
+            data.region = old.region;
+            data.factionIndex = old.factionIndex;
+            data.rules = old.rules;
+        } else {
+            data.region = LobbyRegion.compile(lobby);
+            data.factionIndex = FactionIndex.of(lobby.getTransfer().keySet());
+            data.rules = lobby.rules();
+        }
+        return data;
+    }
+}
@@ -0,0 +1,138 @@
+package org.soraworld.lobby.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.soraworld.lobby.core.GameState;
+import org.soraworld.lobby.core.IGameLobby;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 大厅选择器.
+ * 维护 状态 -&gt; 大厅 与 标签 -&gt; 大厅 索引，支持以下选择器:
+ * <ul>
+ * <li>@state=START 按状态</li>
+ * <li>@tag=arena 按标签</li>
+ * <li>arena-* / arena-?? 通配符, 先按通配符前的固定前缀缩小范围</li>
+ * <li>/arena-\d+/ 正则表达式</li>
+ * </ul>
+ */
+public final class LobbySelector {
+
+    private final EnumMap<GameState, LinkedHashSet<IGameLobby>> states = new EnumMap<>(GameState.class);
+    private final HashMap<String, LinkedHashSet<IGameLobby>> tags = new HashMap<>();
+    private final NameIndex names;
+    private final Function<String, IGameLobby> lookup;
+
+    public LobbySelector(@NotNull NameIndex names, @NotNull Function<String, IGameLobby> lookup) {
+        this.names = names;
+        this.lookup = lookup;
+        for (GameState state : GameState.values()) states.put(state, new LinkedHashSet<>());
+    }
+
+    /**
+     * 是否为选择器(而不是单个大厅 id).
+     *
+     * @param text 文本
+     * @return 是否为选择器
+     */
+    public static boolean isSelector(@NotNull String text) {
+        return text.startsWith("@") || text.indexOf('*') >= 0 || text.indexOf('?') >= 0
+                || text.length() > 1 && text.startsWith("/") && text.endsWith("/");
+    }
+
+    public void add(@NotNull IGameLobby lobby, @NotNull GameState state) {
+        states.get(state).add(lobby);
+        for (String tag : lobby.tags()) {
+            tags.computeIfAbsent(tag.toLowerCase(Locale.ROOT), t -> new LinkedHashSet<>()).add(lobby);
+        }
+    }
+
+    public void remove(@NotNull IGameLobby lobby) {
+        states.values().forEach(set -> set.remove(lobby));
+        tags.values().removeIf(set -> set.remove(lobby) && set.isEmpty());
+    }
+
+    /**
+     * 大厅状态变化.
+     *
+     * @param lobby 大厅
+     * @param state 新状态
+     */
+    public void update(@NotNull IGameLobby lobby, @NotNull GameState state) {
+        if (states.get(state).contains(lobby)) return;
+        states.values().forEach(set -> set.remove(lobby));
+        states.get(state).add(lobby);
+    }
+
+    public void clear() {
+        states.values().forEach(Set::clear);
+        tags.clear();
+    }
+
+    /**
+     * 解析选择器.
+     *
+     * @param selector 选择器
+     * @return 匹配的大厅, 选择器无效时返回 null
+     */
+    @Nullable
+    public List<IGameLobby> select(@NotNull String selector) {
+        String lower = selector.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("@state=")) {
+            try {
+                GameState state = GameState.valueOf(selector.substring(7).toUpperCase(Locale.ROOT));
+                return new ArrayList<>(states.get(state));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        if (lower.startsWith("@tag=")) {
+            LinkedHashSet<IGameLobby> set = tags.get(lower.substring(5));
+            return set != null ? new ArrayList<>(set) : new ArrayList<>();
+        }
+        if (selector.startsWith("@")) return null;
+        Pattern pattern;
+        String prefix = "";
+        try {
+            if (selector.length() > 1 && selector.startsWith("/") && selector.endsWith("/")) {
+                pattern = Pattern.compile(selector.substring(1, selector.length() - 1), Pattern.CASE_INSENSITIVE);
+            } else {
+                int wildcard = 0;
+                while (wildcard < selector.length() && selector.charAt(wildcard) != '*' && selector.charAt(wildcard) != '?') {
+                    wildcard++;
+                }
+                prefix = selector.substring(0, wildcard);
+                pattern = glob(selector);
+            }
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+        ArrayList<IGameLobby> list = new ArrayList<>();
+        for (String id : names.complete(prefix, Integer.MAX_VALUE)) {
+            if (pattern.matcher(id).matches()) {
+                IGameLobby lobby = lookup.apply(id);
+                if (lobby != null) list.add(lobby);
+            }
+        }
+        return list;
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literal = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal < i) regex.append(Pattern.quote(glob.substring(literal, i)));
+                regex.append(c == '*' ? ".*" : ".");
+                literal = i + 1;
+            }
+        }
+        if (literal < glob.length()) regex.append(Pattern.quote(glob.substring(literal)));
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+}
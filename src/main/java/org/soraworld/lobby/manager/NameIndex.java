@@ -0,0 +1,121 @@
+package org.soraworld.lobby.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 名称前缀索引.
+ * 名称按小写排序保存在数组中，前缀补全通过二分查找定位区间，结果数量有上限.
+ * 写入时复制整个数组并整体发布，补全可在任意线程调用.
+ */
+public final class NameIndex {
+
+    private static final class Names {
+        private final String[] lower;
+        private final String[] names;
+
+        private Names(String[] lower, String[] names) {
+            this.lower = lower;
+            this.names = names;
+        }
+    }
+
+    private volatile Names current = new Names(new String[0], new String[0]);
+
+    /**
+     * 添加名称.
+     *
+     * @param name 名称
+     */
+    public synchronized void add(@NotNull String name) {
+        Names old = current;
+        String key = name.toLowerCase(Locale.ROOT);
+        int index = find(old, key, name);
+        if (index >= 0) return;
+        index = -index - 1;
+        int size = old.names.length;
+        String[] lower = new String[size + 1], names = new String[size + 1];
+        System.arraycopy(old.lower, 0, lower, 0, index);
+        System.arraycopy(old.names, 0, names, 0, index);
+        lower[index] = key;
+        names[index] = name;
+        System.arraycopy(old.lower, index, lower, index + 1, size - index);
+        System.arraycopy(old.names, index, names, index + 1, size - index);
+        current = new Names(lower, names);
+    }
+
+    /**
+     * 移除名称.
+     *
+     * @param name 名称
+     */
+    public synchronized void remove(@NotNull String name) {
+        Names old = current;
+        int index = find(old, name.toLowerCase(Locale.ROOT), name);
+        if (index < 0) return;
+        int size = old.names.length;
+        String[] lower = new String[size - 1], names = new String[size - 1];
+        System.arraycopy(old.lower, 0, lower, 0, index);
+        System.arraycopy(old.names, 0, names, 0, index);
+        System.arraycopy(old.lower, index + 1, lower, index, size - index - 1);
+        System.arraycopy(old.names, index + 1, names, index, size - index - 1);
+        current = new Names(lower, names);
+    }
+
+    public synchronized void clear() {
+        current = new Names(new String[0], new String[0]);
+    }
+
+    public int size() {
+        return current.names.length;
+    }
+
+    /**
+     * 前缀补全(忽略大小写).
+     *
+     * @param prefix 前缀, null 视为空
+     * @param limit  最多返回数量
+     * @return 按字母顺序排列的名称
+     */
+    @NotNull
+    public List<String> complete(@Nullable String prefix, int limit) {
+        Names names = current;
+        String key = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+        int from = lowerBound(names.lower, key);
+        ArrayList<String> list = new ArrayList<>(Math.min(limit, names.names.length - from));
+        for (int i = from; i < names.names.length && list.size() < limit && names.lower[i].startsWith(key); i++) {
+            list.add(names.names[i]);
+        }
+        return list;
+    }
+
+    private static int lowerBound(String[] lower, String key) {
+        int low = 0, high = lower.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lower[mid].compareTo(key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * 查找名称位置, 小写相同时按原名排序.
+     *
+     * @return 位置, 不存在时返回 -(插入位置) - 1
+     */
+    private static int find(Names names, String key, String name) {
+        int index = lowerBound(names.lower, key);
+        for (int i = index; i < names.lower.length && names.lower[i].equals(key); i++) {
+            int compare = names.names[i].compareTo(name);
+            if (compare == 0) return i;
+            if (compare > 0) return -i - 1;
+            index = i + 1;
+        }
+        return -index - 1;
+    }
+}
@@ -0,0 +1,111 @@
+package org.soraworld.lobby.manager;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.soraworld.lobby.core.IGameLobby;
+import org.soraworld.lobby.core.LobbyRegion;
+
+import java.util.*;
+import java.util.function.LongConsumer;
+
+/**
+ * 按世界与区域划分的大厅索引.
+ * 世界按配置的名称索引(世界卸载重载后仍然有效, 世界未加载的大厅也会被索引)，
+ * 每个世界内按 256x256 方块的区域记录范围覆盖该区域的大厅.
+ */
+final class WorldPartition {
+
+    private static final int AREA_SHIFT = 8;
+
+    private final HashMap<String, LinkedHashSet<IGameLobby>> worlds = new HashMap<>();
+    private final HashMap<String, HashMap<Long, ArrayList<IGameLobby>>> areas = new HashMap<>();
+    private final HashMap<IGameLobby, String> names = new HashMap<>();
+    private final HashMap<IGameLobby, LobbyRegion> regions = new HashMap<>();
+
+    /**
+     * 加入索引.
+     *
+     * @param lobby  大厅
+     * @param world  配置的世界名称
+     * @param region 大厅范围, 世界未加载时为 null, 只按世界索引
+     */
+    void add(@NotNull IGameLobby lobby, @NotNull String world, @Nullable LobbyRegion region) {
+        remove(lobby);
+        names.put(lobby, world);
+        worlds.computeIfAbsent(world, n -> new LinkedHashSet<>()).add(lobby);
+        if (region == null) return;
+        regions.put(lobby, region);
+        HashMap<Long, ArrayList<IGameLobby>> map = areas.computeIfAbsent(world, n -> new HashMap<>());
+        forEachArea(region, key -> map.computeIfAbsent(key, k -> new ArrayList<>(2)).add(lobby));
+    }
+
+    void remove(@NotNull IGameLobby lobby) {
+        String name = names.remove(lobby);
+        if (name == null) return;
+        LinkedHashSet<IGameLobby> set = worlds.get(name);
+        if (set != null && set.remove(lobby) && set.isEmpty()) worlds.remove(name);
+        LobbyRegion region = regions.remove(lobby);
+        HashMap<Long, ArrayList<IGameLobby>> map = areas.get(name);
+        if (region != null && map != null) {
+            forEachArea(region, key -> {
+                ArrayList<IGameLobby> list = map.get(key);
+                if (list != null && list.remove(lobby) && list.isEmpty()) map.remove(key);
+            });
+            if (map.isEmpty()) areas.remove(name);
+        }
+    }
+
+    @NotNull
+    Set<IGameLobby> inWorld(@NotNull String world) {
+        LinkedHashSet<IGameLobby> set = worlds.get(world);
+        return set != null ? Collections.unmodifiableSet(set) : Collections.emptySet();
+    }
+
+    /**
+     * 范围覆盖该位置所在区域的大厅.
+     *
+     * @param loc 位置
+     * @return 大厅列表(只读)
+     */
+    @NotNull
+    List<IGameLobby> at(@NotNull Location loc) {
+        World world = loc.getWorld();
+        if (world == null) return Collections.emptyList();
+        HashMap<Long, ArrayList<IGameLobby>> map = areas.get(world.getName());
+        if (map == null) return Collections.emptyList();
+        ArrayList<IGameLobby> list = map.get(key(loc.getBlockX() >> AREA_SHIFT, loc.getBlockZ() >> AREA_SHIFT));
+        return list != null ? Collections.unmodifiableList(list) : Collections.emptyList();
+    }
+
+    /**
+     * 大厅范围是否覆盖该位置所在区域.
+     *
+     * @param lobby 大厅
+     * @param loc   位置
+     * @return 是否覆盖
+     */
+    boolean covers(@NotNull IGameLobby lobby, @NotNull Location loc) {
+        return at(loc).contains(lobby);
+    }
+
+    void clear() {
+        worlds.clear();
+        areas.clear();
+        names.clear();
+        regions.clear();
+    }
+
+    private static void forEachArea(LobbyRegion region, LongConsumer consumer) {
+        int minX = (int) Math.floor(region.minX) >> AREA_SHIFT, maxX = (int) Math.floor(region.maxX) >> AREA_SHIFT;
+        int minZ = (int) Math.floor(region.minZ) >> AREA_SHIFT, maxZ = (int) Math.floor(region.maxZ) >> AREA_SHIFT;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) consumer.accept(key(x, z));
+        }
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,112 @@
+package org.soraworld.lobby.core;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * 时间轮驱动器测试.
+ * 大厅更新中移除/休眠同一槽位的其他大厅时，槽位中剩余的大厅仍需正常更新.
+ */
+public class LobbyTickerTest {
+
+    private static final Logger LOGGER = Logger.getLogger("LobbyTickerTest");
+    private static Plugin plugin;
+
+    @BeforeClass
+    public static void install() {
+        if (Bukkit.getServer() == null) {
+            BukkitTask task = stub(BukkitTask.class, (proxy, method, args) -> null);
+            BukkitScheduler scheduler = stub(BukkitScheduler.class, (proxy, method, args) ->
+                    method.getReturnType() == BukkitTask.class ? task : null);
+            Bukkit.setServer(stub(Server.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getScheduler":
+                        return scheduler;
+                    case "getLogger":
+                        return LOGGER;
+                }
+                return null;
+            }));
+        }
+        plugin = stub(Plugin.class, (proxy, method, args) -> method.getName().equals("getLogger") ? LOGGER : null);
+    }
+
+    @Test
+    public void cancelNeighbourInUpdate() {
+        LobbyTicker ticker = new LobbyTicker(plugin);
+        HashMap<String, Integer> updates = new HashMap<>();
+        LobbyTicker.Entry[] entries = new LobbyTicker.Entry[3];
+        // 同周期的大厅在同一槽位，后加入的在链表前面，因此 c 最先更新
+        entries[0] = ticker.schedule(lobby("a", updates, null));
+        entries[1] = ticker.schedule(lobby("b", updates, null));
+        entries[2] = ticker.schedule(lobby("c", updates, lobby -> ticker.cancel(entries[1])));
+        ticker.run();
+        ticker.run();
+        assertEquals(2, (int) updates.getOrDefault("a", 0));
+        assertEquals(0, (int) updates.getOrDefault("b", 0));
+        assertEquals(2, (int) updates.getOrDefault("c", 0));
+        ticker.cancel(entries[0]);
+        ticker.run();
+        assertEquals(2, (int) updates.getOrDefault("a", 0));
+        assertEquals(3, (int) updates.getOrDefault("c", 0));
+    }
+
+    @Test
+    public void parkNeighbourInUpdate() {
+        LobbyTicker ticker = new LobbyTicker(plugin);
+        HashMap<String, Integer> updates = new HashMap<>();
+        LobbyTicker.Entry[] entries = new LobbyTicker.Entry[3];
+        entries[0] = ticker.schedule(lobby("a", updates, null));
+        entries[1] = ticker.schedule(lobby("b", updates, null));
+        entries[2] = ticker.schedule(lobby("c", updates, lobby -> ticker.park(entries[1], Long.MAX_VALUE)));
+        ticker.run();
+        ticker.run();
+        assertEquals(2, (int) updates.getOrDefault("a", 0));
+        assertEquals(0, (int) updates.getOrDefault("b", 0));
+        assertEquals(1, ticker.dormantCount());
+        ticker.wake(entries[1]);
+        assertFalse(entries[1].isParked());
+        ticker.run();
+        assertEquals(3, (int) updates.getOrDefault("a", 0));
+        assertEquals(1, (int) updates.getOrDefault("b", 0));
+    }
+
+    private static IGameLobby lobby(String id, HashMap<String, Integer> updates, Consumer<IGameLobby> action) {
+        return stub(IGameLobby.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "id":
+                    return id;
+                case "cycle":
+                    return 1;
+                case "update":
+                    updates.merge(id, 1, Integer::sum);
+                    if (action != null) action.accept((IGameLobby) proxy);
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(LobbyTickerTest.class.getClassLoader(), new Class[]{type}, handler);
+    }
+}